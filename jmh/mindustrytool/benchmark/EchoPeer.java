@@ -0,0 +1,65 @@
+package mindustrytool.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import arc.util.Log;
+import mindustrytool.transport.StreamTransport;
+import mindustrytool.transport.Transport;
+import mindustrytool.utils.JsonUtils;
+
+// In-process controller that answers every request with its own payload,
+// connected to the gateway through piped streams like the real stdio pair
+public class EchoPeer {
+    private static final int PIPE_SIZE = 1 << 16;
+
+    private final PipedInputStream peerInput = new PipedInputStream(PIPE_SIZE);
+    private final PipedInputStream gatewayInput = new PipedInputStream(PIPE_SIZE);
+    private final PipedOutputStream peerOutput;
+    private final PipedOutputStream gatewayOutput;
+
+    public EchoPeer() throws IOException {
+        peerOutput = new PipedOutputStream(gatewayInput);
+        gatewayOutput = new PipedOutputStream(peerInput);
+    }
+
+    public Transport transport() {
+        return new StreamTransport("EchoPeerTransport", gatewayInput, gatewayOutput);
+    }
+
+    public void start() {
+        var thread = new Thread(() -> {
+            try (var reader = new BufferedReader(new InputStreamReader(peerInput, StandardCharsets.UTF_8))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    var node = JsonUtils.objectMapper.readTree(line);
+
+                    if (!(node instanceof ObjectNode message)
+                            || !"request".equals(message.path("type").asText())
+                            || "CANCEL".equals(message.path("method").asText())) {
+                        continue;
+                    }
+
+                    message.put("type", "response");
+                    message.remove("deadline");
+
+                    peerOutput.write(JsonUtils.objectMapper.writeValueAsBytes(message));
+                    peerOutput.write('\n');
+                    peerOutput.flush();
+                }
+            } catch (IOException e) {
+                Log.err(e);
+            }
+        }, "EchoPeer");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,91 @@
+package mindustrytool.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mindustrytool.APIGateway;
+import mindustrytool.messages.request.PlayerMessageRequest;
+import mindustrytool.type.ServerExchange;
+import mindustrytool.type.Team;
+import mindustrytool.utils.JsonUtils;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private APIGateway gateway;
+    private String dispatchLine;
+
+    private volatile CompletableFuture<PlayerMessageRequest> handled = new CompletableFuture<>();
+
+    @Setup
+    public void setup() throws Exception {
+        var peer = new EchoPeer();
+
+        gateway = new APIGateway();
+        gateway.on("BENCH_DISPATCH", PlayerMessageRequest.class, event -> handled.complete(event.getPayload()));
+        gateway.start(peer.transport());
+
+        peer.start();
+
+        dispatchLine = JsonUtils.toJsonString(new ServerExchange()//
+                .setId("00000000-0000-0000-0000-000000000000")//
+                .setMethod("BENCH_DISPATCH")//
+                .setData(player("dispatch"))//
+                .request());
+
+        // Wait for the transport to connect before measuring
+        gateway.executeAsync("BENCH_ECHO", player("warmup"), PlayerMessageRequest.class).get(10, TimeUnit.SECONDS);
+    }
+
+    private static PlayerMessageRequest player(String name) {
+        return new PlayerMessageRequest()//
+                .setUuid("cSbmOaHsQ5mZ0r2m5rZl1Q==")//
+                .setName(name)//
+                .setIp("203.0.113.42")//
+                .setTeam(new Team().setName("sharded").setColor("ffd37f"));
+    }
+
+    // Decode, lane hand-off and handler invocation for one inbound request
+    @Benchmark
+    public PlayerMessageRequest dispatch() throws Exception {
+        var future = new CompletableFuture<PlayerMessageRequest>();
+        handled = future;
+
+        gateway.handleMessage(dispatchLine);
+
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public PlayerMessageRequest roundTrip() throws Exception {
+        return gateway.executeAsync("BENCH_ECHO", player(String.valueOf(sequence.incrementAndGet())), PlayerMessageRequest.class)//
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    // Distinct payloads so concurrent callers are not coalesced into one request
+    @Benchmark
+    @Threads(8)
+    public PlayerMessageRequest roundTripContended() throws Exception {
+        return roundTrip();
+    }
+}
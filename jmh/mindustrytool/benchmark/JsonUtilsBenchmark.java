@@ -0,0 +1,96 @@
+package mindustrytool.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mindustrytool.messages.request.PlayerMessageRequest;
+import mindustrytool.messages.response.StatsMessageResponse;
+import mindustrytool.type.ServerExchange;
+import mindustrytool.type.Team;
+import mindustrytool.utils.JsonUtils;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonUtilsBenchmark {
+
+    private ServerExchange joinRequest;
+    private ServerExchange statsResponse;
+
+    private String joinRequestJson;
+    private String statsResponseJson;
+
+    @Setup
+    public void setup() {
+        var player = new PlayerMessageRequest()//
+                .setUuid("cSbmOaHsQ5mZ0r2m5rZl1Q==")//
+                .setName("[#ffd37f]Benchmark[white]Player")//
+                .setIp("203.0.113.42")//
+                .setTeam(new Team().setName("sharded").setColor("ffd37f"));
+
+        // A 256x256 map preview is what DETAIL_STATS usually carries
+        var mapData = new byte[64 * 1024];
+        new Random(146).nextBytes(mapData);
+
+        var stats = new StatsMessageResponse()//
+                .setRamUsage(512L * 1024 * 1024)//
+                .setTotalRam(2048L * 1024 * 1024)//
+                .setPlayers(24)//
+                .setMapName("Ancient Caldera")//
+                .setMapData(mapData)//
+                .setMods(List.of("mindustry-tool-plugin", "extended-commands"))//
+                .setHosted(true);
+
+        joinRequest = new ServerExchange()//
+                .setId(UUID.randomUUID().toString())//
+                .setMethod("PLAYER_JOIN")//
+                .setData(player)//
+                .setDeadline(System.currentTimeMillis() + 30_000)//
+                .request();
+
+        statsResponse = new ServerExchange()//
+                .setId(UUID.randomUUID().toString())//
+                .setMethod("DETAIL_STATS")//
+                .setData(stats)//
+                .response();
+
+        joinRequestJson = JsonUtils.toJsonString(joinRequest);
+        statsResponseJson = JsonUtils.toJsonString(statsResponse);
+    }
+
+    @Benchmark
+    public String writeJoinRequest() {
+        return JsonUtils.toJsonString(joinRequest);
+    }
+
+    @Benchmark
+    public String writeStatsResponse() {
+        return JsonUtils.toJsonString(statsResponse);
+    }
+
+    @Benchmark
+    public ServerExchange readJoinRequest() {
+        return JsonUtils.readMessage(joinRequestJson, message -> PlayerMessageRequest.class);
+    }
+
+    @Benchmark
+    public ServerExchange readStatsResponse() {
+        return JsonUtils.readMessage(statsResponseJson, message -> StatsMessageResponse.class);
+    }
+}
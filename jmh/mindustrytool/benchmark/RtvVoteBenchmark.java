@@ -0,0 +1,96 @@
+package mindustrytool.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mindustry.gen.Groups;
+import mindustry.gen.Player;
+import mindustry.net.NetConnection;
+import mindustrytool.handlers.RtvVoteHandler;
+import mindustrytool.utils.PlayerRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RtvVoteBenchmark {
+    private static final int MAPS = 10;
+
+    @Param({ "100" })
+    public int playerCount;
+
+    private RtvVoteHandler handler;
+    private Player[] players;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Groups.init();
+
+        players = new Player[playerCount];
+
+        for (int i = 0; i < playerCount; i++) {
+            var player = Player.create();
+            var con = new NetConnection("10.0." + (i / 256) + "." + (i % 256)) {
+                @Override
+                public void send(Object object, boolean reliable) {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+
+            con.uuid = "benchmark-player-" + i;
+            player.con = con;
+            players[i] = player;
+
+            Groups.player.add(player);
+            PlayerRegistry.add(player);
+        }
+
+        handler = new RtvVoteHandler();
+
+        // Spread votes over several maps so no map reaches the threshold and
+        // check() stays on its counting path instead of ending the game
+        for (int i = 0; i < playerCount; i++) {
+            handler.vote(players[i], i % MAPS);
+        }
+    }
+
+    // One player changing their vote: drop it everywhere, vote again, check
+    @Benchmark
+    public int revote() {
+        var player = players[next];
+        int mapId = next % MAPS;
+
+        next = (next + 1) % playerCount;
+
+        handler.removeVote(player);
+        handler.vote(player, mapId);
+        handler.check(mapId);
+
+        return handler.getVoteCount(mapId);
+    }
+
+    @Benchmark
+    public boolean isVoted() {
+        var player = players[next];
+        next = (next + 1) % playerCount;
+
+        return handler.isVoted(player, next % MAPS);
+    }
+}
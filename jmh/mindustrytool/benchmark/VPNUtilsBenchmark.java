@@ -0,0 +1,69 @@
+package mindustrytool.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mindustrytool.utils.VPNUtils;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VPNUtilsBenchmark {
+
+    private String hitIp;
+    private String hitIpV6;
+    private String missIp = "203.0.113.42";
+
+    // Loads the same feed VPNUtils.refresh() uses, synchronously so the trie is
+    // complete before measuring
+    @Setup
+    public void setup() throws Exception {
+        var subnets = VPNUtils.fetchGithubActions();
+
+        if (subnets.isEmpty()) {
+            throw new IllegalStateException("GitHub meta returned no actions subnets");
+        }
+
+        VPNUtils.setFeed(VPNUtils.GITHUB_FEED, subnets);
+
+        for (var subnet : subnets) {
+            var address = subnet.split("/")[0];
+
+            if (address.contains(":")) {
+                if (hitIpV6 == null) {
+                    hitIpV6 = address;
+                }
+            } else if (hitIp == null) {
+                hitIp = address;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return VPNUtils.isVpnIp(hitIp);
+    }
+
+    @Benchmark
+    public boolean hitV6() {
+        return VPNUtils.isVpnIp(hitIpV6);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return VPNUtils.isVpnIp(missIp);
+    }
+}
@@ -0,0 +1,227 @@
+package mindustrytool.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import arc.func.Func;
+import arc.util.Log;
+import mindustrytool.transport.StreamTransport;
+import mindustrytool.transport.Transport;
+import mindustrytool.utils.JsonUtils;
+
+// Stand-in for the MindustryTool backend on the other end of the gateway
+// pipes. Answers plugin requests with a configurable latency and error rate
+// and can fire its own requests at the plugin.
+public class FakeController {
+    private static final int PIPE_SIZE = 1 << 20;
+
+    private final PipedInputStream peerInput = new PipedInputStream(PIPE_SIZE);
+    private final PipedInputStream gatewayInput = new PipedInputStream(PIPE_SIZE);
+    private final PipedOutputStream peerOutput;
+    private final PipedOutputStream gatewayOutput;
+
+    private final ScheduledExecutorService responder = Executors.newScheduledThreadPool(2, runnable -> {
+        var thread = new Thread(runnable, "FakeControllerResponder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentHashMap<String, Behavior> behaviors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong unknown = new AtomicLong();
+
+    public static class Behavior {
+        public final double latencyMillis;
+        public final double jitterMillis;
+        public final double errorRate;
+        public final Func<JsonNode, Object> body;
+
+        public Behavior(double latencyMillis, double jitterMillis, double errorRate, Func<JsonNode, Object> body) {
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            this.errorRate = errorRate;
+            this.body = body;
+        }
+
+        // Fixed latency plus an exponential tail, which is closer to what a
+        // backend under load looks like than a uniform spread
+        long nextDelayMicros() {
+            var random = ThreadLocalRandom.current();
+            double jitter = jitterMillis <= 0 ? 0 : -jitterMillis * Math.log(1 - random.nextDouble());
+
+            return (long) ((latencyMillis + jitter) * 1000);
+        }
+
+        boolean nextIsError() {
+            return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        }
+    }
+
+    public FakeController() throws IOException {
+        peerOutput = new PipedOutputStream(gatewayInput);
+        gatewayOutput = new PipedOutputStream(peerInput);
+    }
+
+    public Transport transport() {
+        return new StreamTransport("FakeControllerTransport", gatewayInput, gatewayOutput);
+    }
+
+    public FakeController respond(String method, Behavior behavior) {
+        behaviors.put(method, behavior);
+        return this;
+    }
+
+    public CompletableFuture<JsonNode> request(String method, Object data) {
+        var id = UUID.randomUUID().toString();
+        var future = new CompletableFuture<JsonNode>();
+
+        pending.put(id, future);
+
+        var message = JsonUtils.objectMapper.createObjectNode()//
+                .put("id", id)//
+                .put("method", method)//
+                .put("type", "request");
+
+        message.set("data", JsonUtils.objectMapper.valueToTree(data));
+
+        try {
+            write(message);
+        } catch (IOException e) {
+            pending.remove(id);
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    public long getServed() {
+        return served.get();
+    }
+
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    public long getUnknown() {
+        return unknown.get();
+    }
+
+    public void start() {
+        var thread = new Thread(() -> {
+            try (var reader = new BufferedReader(new InputStreamReader(peerInput, StandardCharsets.UTF_8))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    JsonNode node;
+
+                    try {
+                        node = JsonUtils.objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        // Plain log output sharing the pipe
+                        continue;
+                    }
+
+                    if (node instanceof ObjectNode message) {
+                        handle(message);
+                    }
+                }
+            } catch (IOException e) {
+                Log.err(e);
+            }
+        }, "FakeController");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void handle(ObjectNode message) {
+        var id = message.path("id").asText();
+        var method = message.path("method").asText();
+        var type = message.path("type").asText();
+
+        switch (type) {
+            case "request" -> {
+                if (method.equals("CANCEL")) {
+                    cancelled.incrementAndGet();
+                    return;
+                }
+
+                var behavior = behaviors.get(method);
+
+                if (behavior == null) {
+                    unknown.incrementAndGet();
+                    reply(id, method, "error", "No handler for method: " + method);
+                    return;
+                }
+
+                var data = message.get("data");
+
+                responder.schedule(() -> {
+                    served.incrementAndGet();
+
+                    if (behavior.nextIsError()) {
+                        reply(id, method, "error", "Injected error");
+                    } else {
+                        reply(id, method, "response", behavior.body.get(data));
+                    }
+                }, behavior.nextDelayMicros(), TimeUnit.MICROSECONDS);
+            }
+            case "response" -> {
+                var future = pending.remove(id);
+                if (future != null) {
+                    future.complete(message.get("data"));
+                }
+            }
+            case "error" -> {
+                var future = pending.remove(id);
+                if (future != null) {
+                    future.completeExceptionally(new IllegalStateException(message.path("data").asText()));
+                }
+            }
+            default -> unknown.incrementAndGet();
+        }
+    }
+
+    private void reply(String id, String method, String type, Object data) {
+        var message = JsonUtils.objectMapper.createObjectNode()//
+                .put("id", id)//
+                .put("method", method)//
+                .put("type", type);
+
+        message.set("data", JsonUtils.objectMapper.valueToTree(data));
+
+        try {
+            write(message);
+        } catch (IOException e) {
+            Log.err(e);
+        }
+    }
+
+    private void write(ObjectNode message) throws IOException {
+        var bytes = JsonUtils.objectMapper.writeValueAsBytes(message);
+
+        synchronized (peerOutput) {
+            peerOutput.write(bytes);
+            peerOutput.write('\n');
+            peerOutput.flush();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package mindustrytool.loadtest;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import arc.func.Func;
+import arc.func.Prov;
+import arc.util.Log;
+import mindustrytool.APIGateway;
+import mindustrytool.handlers.APIHandler;
+import mindustrytool.messages.request.GetServersMessageRequest;
+import mindustrytool.messages.request.PlayerMessageRequest;
+import mindustrytool.messages.request.SetPlayerMessageRequest;
+import mindustrytool.messages.response.GetServersMessageResponse;
+import mindustrytool.messages.response.StatsMessageResponse;
+import mindustrytool.type.Team;
+import mindustrytool.utils.LatencyHistogram;
+
+// Drives an APIGateway against a FakeController over piped streams.
+//
+// Options are key=value pairs or .properties files, e.g.
+//   duration=60 joinRate=200 statsRate=20 PLAYER_JOIN.latency=25 PLAYER_JOIN.errorRate=0.01
+public class LoadTest {
+
+    private final Properties options;
+
+    private final APIGateway gateway = new APIGateway();
+    private final FakeController controller;
+
+    // Stands in for Core.app.post, the plugin's single game thread
+    private final ExecutorService gameThread = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "GameThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LatencyHistogram gameThreadLag = new LatencyHistogram();
+    private final long gameCost;
+
+    private final List<Workload> workloads = new ArrayList<>();
+
+    private final AtomicInteger playerSequence = new AtomicInteger();
+
+    private class Workload {
+        final String name;
+        final double rate;
+        final Prov<CompletableFuture<?>> call;
+
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        long issued;
+
+        Workload(String name, double rate, Prov<CompletableFuture<?>> call) {
+            this.name = name;
+            this.rate = rate;
+            this.call = call;
+        }
+
+        void fire() {
+            issued++;
+            long start = System.nanoTime();
+
+            call.get().whenComplete((result, error) -> {
+                latency.recordSince(start);
+
+                if (error == null) {
+                    completed.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+
+        long inFlight() {
+            return issued - completed.get() - failed.get();
+        }
+    }
+
+    public LoadTest(Properties options) throws IOException {
+        this.options = options;
+        this.controller = new FakeController();
+        this.gameCost = (long) (number("gameCost", 0.05) * 1_000_000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new Properties();
+
+        for (var arg : args) {
+            if (arg.endsWith(".properties")) {
+                try (var input = new FileInputStream(arg)) {
+                    options.load(input);
+                }
+                continue;
+            }
+
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+
+            options.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        new LoadTest(options).run();
+        System.exit(0);
+    }
+
+    private double number(String key, double defaultValue) {
+        var value = options.getProperty(key);
+
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private FakeController.Behavior behavior(String method, Func<JsonNode, Object> body) {
+        return new FakeController.Behavior(//
+                number(method + ".latency", number("latency", 10)), //
+                number(method + ".jitter", number("jitter", 5)), //
+                number(method + ".errorRate", number("errorRate", 0)), //
+                body);
+    }
+
+    private void configureController() {
+        int servers = (int) number("servers", 20);
+
+        controller.respond("PLAYER_JOIN", behavior("PLAYER_JOIN", data -> new SetPlayerMessageRequest()//
+                .setUuid(data.path("uuid").asText())//
+                .setName(data.path("name").asText())//
+                .setAdmin(false)//
+                .setExp(1200)));
+
+        controller.respond("SERVERS", behavior("SERVERS", data -> {
+            var list = new ArrayList<GetServersMessageResponse.ResponseData>();
+
+            for (int i = 0; i < servers; i++) {
+                list.add(new GetServersMessageResponse.ResponseData()//
+                        .setId("server-" + i)//
+                        .setName("Server " + i)//
+                        .setDescription("Load test server")//
+                        .setMode("survival")//
+                        .setPort(6567 + i)//
+                        .setPlayers(i % 12)//
+                        .setMapName("Ancient Caldera")//
+                        .setMods(List.of()));
+            }
+
+            return new GetServersMessageResponse().setServers(list);
+        }));
+
+        controller.respond("PLAYERS", behavior("PLAYERS", data -> 1234));
+        controller.respond("START_SERVER", behavior("START_SERVER", data -> 6600));
+    }
+
+    // Plugin side handlers with a simulated cost instead of the game state
+    private void configureGateway() {
+        new APIHandler().registerLanes(gateway);
+
+        long statsCost = (long) (number("STATS.cost", 0.2) * 1_000_000);
+        long detailStatsCost = (long) (number("DETAIL_STATS.cost", 20) * 1_000_000);
+        long discordCost = (long) (number("DISCORD_MESSAGE.cost", 0.05) * 1_000_000);
+
+        var mapData = new byte[(int) number("DETAIL_STATS.mapBytes", 64 * 1024)];
+
+        gateway.on("STATS", String.class, event -> {
+            LockSupport.parkNanos(statsCost);
+            event.response(stats());
+        });
+
+        gateway.on("DETAIL_STATS", String.class, event -> {
+            LockSupport.parkNanos(detailStatsCost);
+            event.response(stats().setMapData(mapData));
+        });
+
+        // The real handler does not reply; answering here lets the harness time it
+        gateway.on("DISCORD_MESSAGE", String.class, event -> {
+            LockSupport.parkNanos(discordCost);
+            event.response(true);
+        });
+    }
+
+    private static StatsMessageResponse stats() {
+        return new StatsMessageResponse()//
+                .setRamUsage(512)//
+                .setTotalRam(2048)//
+                .setPlayers(24)//
+                .setMapName("Ancient Caldera")//
+                .setMods(List.of())//
+                .setHosted(true);
+    }
+
+    // Continuations hop to the game thread like the real event handlers do
+    private <T> CompletableFuture<T> onGameThread(CompletableFuture<T> future) {
+        return future.thenApplyAsync(result -> result, runnable -> {
+            long posted = System.nanoTime();
+
+            gameThread.execute(() -> {
+                gameThreadLag.recordSince(posted);
+                LockSupport.parkNanos(gameCost);
+                runnable.run();
+            });
+        });
+    }
+
+    private void configureWorkloads() {
+        workloads.add(new Workload("PLAYER_JOIN", number("joinRate", 50), () -> {
+            int id = playerSequence.incrementAndGet();
+            var request = new PlayerMessageRequest()//
+                    .setUuid("load-test-" + id)//
+                    .setName("Player" + id)//
+                    .setIp("10.%d.%d.%d".formatted((id >> 16) & 255, (id >> 8) & 255, id & 255))//
+                    .setTeam(new Team().setName("sharded").setColor("ffd37f"));
+
+            return onGameThread(gateway.executeAsync("PLAYER_JOIN", request, SetPlayerMessageRequest.class));
+        }));
+
+        workloads.add(new Workload("SERVERS", number("serversRate", 5), () -> onGameThread(gateway//
+                .executeAsync("SERVERS", new GetServersMessageRequest().setPage(0).setSize(20), GetServersMessageResponse.class))));
+
+        workloads.add(new Workload("PLAYERS", number("playersRate", 5), () -> gateway.executeAsync("PLAYERS", "", Integer.class)));
+
+        workloads.add(new Workload("START_SERVER", number("startRate", 0.2), () -> onGameThread(gateway//
+                .executeAsync("START_SERVER", "server-" + playerSequence.get() % 20, Integer.class))));
+
+        workloads.add(new Workload("STATS", number("statsRate", 10), () -> controller.request("STATS", "")));
+        workloads.add(new Workload("DETAIL_STATS", number("detailStatsRate", 1), () -> controller.request("DETAIL_STATS", "")));
+        workloads.add(new Workload("DISCORD_MESSAGE", number("discordRate", 20), () -> controller.request("DISCORD_MESSAGE", "[load test] hello")));
+
+        workloads.removeIf(workload -> workload.rate <= 0);
+    }
+
+    public void run() throws Exception {
+        configureController();
+        configureGateway();
+        configureWorkloads();
+
+        gateway.start(controller.transport());
+        controller.start();
+
+        long duration = (long) (number("duration", 30) * 1_000_000_000L);
+        long drain = (long) (number("drain", 5) * 1_000_000_000L);
+        long reportEvery = (long) (number("reportEvery", 5) * 1_000_000_000L);
+
+        Log.info("Load test for @s: @", duration / 1_000_000_000L, workloads.stream()//
+                .map(workload -> workload.name + "=" + workload.rate + "/s")//
+                .toList());
+
+        // Open loop: requests are issued on schedule whether or not earlier ones finished
+        ScheduledExecutorService pacer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "LoadTestPacer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        var nextReport = new long[] { start + reportEvery };
+
+        pacer.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            double elapsed = (Math.min(now, start + duration) - start) / 1e9;
+
+            for (var workload : workloads) {
+                long due = (long) (workload.rate * elapsed);
+
+                while (workload.issued < due) {
+                    workload.fire();
+                }
+            }
+
+            if (now >= nextReport[0]) {
+                nextReport[0] += reportEvery;
+                progress((now - start) / 1e9);
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(duration / 1_000_000);
+        pacer.shutdown();
+        pacer.awaitTermination(1, TimeUnit.SECONDS);
+
+        long drainUntil = System.nanoTime() + drain;
+        while (System.nanoTime() < drainUntil && workloads.stream().anyMatch(workload -> workload.inFlight() > 0)) {
+            Thread.sleep(50);
+        }
+
+        report(duration / 1e9);
+    }
+
+    private void progress(double elapsed) {
+        var line = new StringBuilder("[%5.1fs]".formatted(elapsed));
+
+        for (var workload : workloads) {
+            line.append(" %s done=%d fail=%d inflight=%d".formatted(workload.name, workload.completed.get(), workload.failed.get(),
+                    workload.inFlight()));
+        }
+
+        Log.info(line.toString());
+    }
+
+    private void report(double seconds) {
+        Log.info("");
+        Log.info("%-16s %10s %10s %8s %8s %9s %9s %9s %9s".formatted("workload", "offered/s", "done/s", "failed", "inflight", "p50 ms",
+                "p90 ms", "p99 ms", "max ms"));
+
+        for (var workload : workloads) {
+            Log.info("%-16s %10.1f %10.1f %8d %8d %9.2f %9.2f %9.2f %9.2f".formatted(//
+                    workload.name, //
+                    workload.issued / seconds, //
+                    workload.completed.get() / seconds, //
+                    workload.failed.get(), //
+                    workload.inFlight(), //
+                    workload.latency.percentile(50) / 1000f, //
+                    workload.latency.percentile(90) / 1000f, //
+                    workload.latency.percentile(99) / 1000f, //
+                    workload.latency.getMax() / 1000f));
+        }
+
+        Log.info("");
+        Log.info("Game thread lag: p50 @ms, p99 @ms, max @ms over @ tasks", gameThreadLag.percentile(50) / 1000f,
+                gameThreadLag.percentile(99) / 1000f, gameThreadLag.getMax() / 1000f, gameThreadLag.getCount());
+        Log.info("Controller: served @, cancelled @, unknown @", controller.getServed(), controller.getCancelled(),
+                controller.getUnknown());
+
+        var metrics = gateway.getMetrics().snapshot(gateway);
+
+        Log.info("Gateway: @ pending requests, @ pending writes", metrics.getPendingRequests(), metrics.getPendingWrites());
+        for (var method : metrics.getMethods()) {
+            Log.info("  @ - timeouts: @, errors: @, rejected: @, queued p99 @ms, handler p99 @ms", method.getMethod(),
+                    method.getTimeouts(), method.getErrors(), method.getRejected(), method.getQueued().getP99() / 1000f,
+                    method.getHandler().getP99() / 1000f);
+        }
+
+        for (var lane : metrics.getLanes()) {
+            Log.info("  lane @ - active: @/@, queued: @/@, rejected: @", lane.getName(), lane.getActive(), lane.getConcurrency(),
+                    lane.getQueued(), lane.getCapacity(), lane.getRejected());
+        }
+    }
+}
@@ -1,73 +1,317 @@
 package mindustrytool;
 
-import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import arc.func.Cons;
 import arc.util.Log;
 import mindustrytool.handlers.ServerMessageHandler;
+import mindustrytool.messages.MessageDataException;
+import mindustrytool.messages.NotMessageException;
+import mindustrytool.messages.request.CacheInvalidateMessageRequest;
+import mindustrytool.messages.request.HandshakeMessage;
+import mindustrytool.transport.FrameDecoder;
+import mindustrytool.transport.Framing;
+import mindustrytool.transport.LogFrameStream;
+import mindustrytool.transport.MessageWriter;
+import mindustrytool.transport.Transport;
 import mindustrytool.type.ServerExchange;
 import mindustrytool.type.ServerMessageEvent;
+import mindustrytool.utils.Bulkhead;
 import mindustrytool.utils.JsonUtils;
+import mindustrytool.utils.TimingWheel;
+import mindustrytool.utils.TtlCache;
 
 public class APIGateway {
 
-    private ConcurrentHashMap<String, CompletableFuture<String>> requests = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, PendingRequest> requests = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, ServerMessageHandler<?>> handlers = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, InFlight> inflight = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, TtlCache<String, Object>> caches = new ConcurrentHashMap<>();
 
     private static final int REQUEST_TIMEOUT = 30;
 
-    private static final Executor executor = Executors.newFixedThreadPool(10);
+    private final Bulkhead defaultLane = new Bulkhead("default", 6, 256);
+    private final Bulkhead responseLane = new Bulkhead("response", 2, 1024);
+    private final ConcurrentHashMap<String, Bulkhead> lanes = new ConcurrentHashMap<>();
+
+    private static final TimingWheel timeouts = new TimingWheel("GatewayTimeouts", 100, TimeUnit.MILLISECONDS, 512);
+
+    private final MessageWriter writer = new MessageWriter();
+    private final GatewayMetrics metrics = new GatewayMetrics();
+    private final FrameDecoder decoder = new FrameDecoder(new FrameDecoder.Listener() {
+        @Override
+        public void onLine(String line) {
+            handleLine(line);
+        }
+
+        @Override
+        public void onFrame(byte type, byte[] data, int offset, int length) {
+            handleFrame(type, data, offset, length);
+        }
+    });
+
+    private final BatchEmitter batchEmitter = new BatchEmitter(this::emitNow, Config.EMIT_BATCH_WINDOW_MILLIS, Config.EMIT_BATCH_MAX_ENTRIES);
+    private volatile boolean batchEmit = false;
+
+    private Transport transport;
+    // System.out from before log frames replaced it, null while it is in place
+    private PrintStream console;
+    private Cons<String> commandHandler = line -> Log.warn("Unhandled command: @", line);
+
+    private static class PendingRequest {
+        final Class<?> clazz;
+        final CompletableFuture<ServerExchange> future;
+
+        PendingRequest(Class<?> clazz, CompletableFuture<ServerExchange> future) {
+            this.clazz = clazz;
+            this.future = future;
+        }
+    }
+
+    private static class InFlight {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    public APIGateway() {
+        on("HANDSHAKE", HandshakeMessage.class, this::onHandshake);
+        on("CACHE_INVALIDATE", CacheInvalidateMessageRequest.class, event -> {
+            var data = event.getPayload().getData();
+
+            invalidate(event.getPayload().getMethod(), data == null || data.isNull() ? null : data);
+            event.response(true);
+        });
+        on("GATEWAY_METRICS", String.class, event -> event.response(metrics.snapshot(this)));
+    }
+
+    public void start(Transport transport) {
+        this.transport = transport;
+
+        writer.start(transport);
+        transport.start(new Transport.Receiver() {
+            @Override
+            public void receive(byte[] data, int offset, int length) {
+                decoder.feed(data, offset, length);
+            }
+
+            @Override
+            public void connected() {
+                // Every connection starts out in JSON lines, framing is negotiated again
+                decoder.reset();
+                writer.setFraming(Framing.JSON);
+            }
+
+            @Override
+            public void disconnected() {
+                failPending("Gateway disconnected");
+            }
+        });
+    }
+
+    // Nothing answers requests sent on a lost connection, fail them now instead of at their timeout
+    private void failPending(String reason) {
+        for (var id : requests.keySet()) {
+            var request = requests.remove(id);
+
+            if (request != null) {
+                request.future.completeExceptionally(new IllegalStateException(reason));
+            }
+        }
+    }
+
+    public void setCommandHandler(Cons<String> commandHandler) {
+        this.commandHandler = commandHandler;
+    }
 
     public <T> T execute(String method, Object data, Class<T> clazz) throws RuntimeException {
         return execute(method, data, clazz, REQUEST_TIMEOUT);
     }
 
     public <T> T execute(String method, Object data, Class<T> clazz, int timeOutSeconds) throws RuntimeException {
-        String id = UUID.randomUUID().toString();
+        try {
+            return executeAsync(method, data, clazz, timeOutSeconds).get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + method, e);
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(String method, Object data, Class<T> clazz) {
+        return executeAsync(method, data, clazz, REQUEST_TIMEOUT);
+    }
 
-        ServerExchange exchangeData = new ServerExchange().setData(data).setMethod(method).setId(id);
+    public <T> CompletableFuture<T> executeAsync(String method, Object data, Class<T> clazz, int timeOutSeconds) {
+        String key = JsonUtils.toJsonString(data);
+        var cache = caches.get(method);
 
-        CompletableFuture<String> request = new CompletableFuture<>();
+        if (cache != null) {
+            var cached = cache.get(key);
 
-        requests.put(id, request);
+            if (clazz.isInstance(cached)) {
+                return CompletableFuture.completedFuture(clazz.cast(cached));
+            }
+        }
 
-        System.out.println(JsonUtils.toJsonString(exchangeData));
+        // Identical concurrent calls share one request, it is only cancelled once every caller gave up
+        String flightKey = method + ":" + clazz.getName() + ":" + key;
+        InFlight flight = inflight.get(flightKey);
 
-        try {
-            String responseString = request.get(timeOutSeconds, TimeUnit.SECONDS);
+        if (flight == null) {
+            var created = new InFlight();
+
+            flight = inflight.putIfAbsent(flightKey, created);
 
-            JsonNode node = JsonUtils.readJson(responseString);
+            if (flight == null) {
+                flight = created;
 
-            if (!node.has("type")) {
-                throw new RuntimeException("No error field in response for id " + id);
+                var underlying = request(method, data, clazz, timeOutSeconds);
+
+                underlying.whenComplete((response, error) -> {
+                    inflight.remove(flightKey, created);
+
+                    if (error != null) {
+                        created.future.completeExceptionally(error);
+                    } else {
+                        if (cache != null) {
+                            cache.put(key, response);
+                        }
+                        created.future.complete(response);
+                    }
+                });
+
+                created.future.whenComplete((response, error) -> {
+                    if (error instanceof CancellationException) {
+                        underlying.cancel(false);
+                    }
+                });
             }
+        }
+
+        var shared = flight;
+        var result = shared.future.thenApply(clazz::cast);
 
-            var type = node.get("type").asText();
+        shared.waiters.incrementAndGet();
 
-            if (type.equals("error")) {
-                throw new RuntimeException(node.get("data").toString());
+        result.whenComplete((response, error) -> {
+            if (error instanceof CancellationException && shared.waiters.decrementAndGet() == 0) {
+                shared.future.cancel(false);
             }
+        });
 
-            return JsonUtils.readJsonAsClass(node.get("data").toString(), clazz);
+        return result;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException(exchangeData.toString(), e);
-        } finally {
-            requests.remove(id);
+    public void cache(String method, long ttl, TimeUnit unit, int maxSize) {
+        caches.put(method, new TtlCache<>(ttl, unit, maxSize));
+    }
+
+    public void invalidate(String method, Object data) {
+        var cache = caches.get(method);
+
+        if (cache == null) {
+            return;
+        }
+
+        if (data == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(JsonUtils.toJsonString(data));
         }
     }
 
+    private <T> CompletableFuture<T> request(String method, Object data, Class<T> clazz, int timeOutSeconds) {
+        // The transport would drop it, so it could only time out
+        if (transport != null && !transport.isConnected()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Gateway is not connected, " + method + " not sent"));
+        }
+
+        String id = UUID.randomUUID().toString();
+
+        ServerExchange exchangeData = new ServerExchange()//
+                .setData(data)//
+                .setMethod(method)//
+                .setId(id)//
+                .setDeadline(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeOutSeconds));
+
+        CompletableFuture<ServerExchange> request = new CompletableFuture<>();
+
+        var methodMetrics = metrics.of(method);
+        long startTime = System.nanoTime();
+
+        var timeout = timeouts.schedule(() -> {
+            if (requests.remove(id) != null) {
+                methodMetrics.timeouts.incrementAndGet();
+                request.completeExceptionally(new TimeoutException("Request timed out after " + timeOutSeconds + "s"));
+                emit("CANCEL", id);
+            }
+        }, timeOutSeconds, TimeUnit.SECONDS);
+
+        requests.put(id, new PendingRequest(clazz, request));
+
+        request.whenComplete((response, error) -> {
+            requests.remove(id);
+            timeout.cancel();
+        });
+
+        var result = request.handle((response, error) -> {
+            if (error != null) {
+                throw new RuntimeException(exchangeData.toString(), error);
+            }
+
+            methodMetrics.outbound.recordSince(startTime);
+
+            if (response.getType().equals("error")) {
+                methodMetrics.errors.incrementAndGet();
+                throw new RuntimeException(exchangeData.toString() + ": " + response.getData());
+            }
+
+            return clazz.cast(response.getData());
+        });
+
+        // Caller gave up (e.g. the player left), let the backend drop the work as well
+        result.whenComplete((response, error) -> {
+            if (error instanceof CancellationException && requests.remove(id) != null) {
+                request.cancel(false);
+                emit("CANCEL", id);
+            }
+        });
+
+        flushBatched();
+        send(exchangeData);
+
+        return result;
+    }
+
     public void emit(String method, Object data) {
+        flushBatched();
+        emitNow(method, data);
+    }
+
+    // Batched messages queued before an unbatched one go out first, so the
+    // backend sees for example a player's leave before their next join
+    private void flushBatched() {
+        if (batchEmit) {
+            batchEmitter.flushAll();
+        }
+    }
+
+    private void emitNow(String method, Object data) {
         String id = UUID.randomUUID().toString();
 
         ServerExchange exchangeData = new ServerExchange()//
@@ -75,48 +319,215 @@ public class APIGateway {
                 .setMethod(method)//
                 .setId(id);
 
-        System.out.println(JsonUtils.toJsonString(exchangeData));
+        send(exchangeData);
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
-    public void handleMessage(String input) throws JsonParseException, JsonMappingException, IOException {
-        JsonNode node = JsonUtils.readMessage(input);
+    public void emitBatched(String method, Object data) {
+        if (batchEmit) {
+            batchEmitter.emit(method, data);
+        } else {
+            emit(method, data);
+        }
+    }
 
-        executor.execute(() -> {
-            try {
-                String id = node.get("id").asText();
-                String type = node.get("type").asText();
+    public void send(ServerExchange message) {
+        writer.write(message);
+    }
 
-                if (type.equals("request")) {
-                    String method = node.get("method").asText();
-                    ServerMessageHandler<?> handler = handlers.get(method);
+    private void handleLine(String line) {
+        try {
+            handleMessage(line);
+        } catch (NotMessageException ignored) {
+            commandHandler.get(line);
+        } catch (MessageDataException e) {
+            handleDataError(e);
+        } catch (Exception e) {
+            Log.err(e);
+        }
+    }
 
-                    if (handler == null) {
-                        throw new RuntimeException("No handler for method " + method);
-                    }
+    private void handleFrame(byte type, byte[] data, int offset, int length) {
+        try {
+            if (type == Framing.MESSAGE_FRAME) {
+                handleMessage(JsonUtils.readBinaryMessage(data, offset, length, this::getDataClass));
+            } else if (type == Framing.COMMAND_FRAME) {
+                commandHandler.get(new String(data, offset, length, StandardCharsets.UTF_8));
+            } else {
+                Log.warn("Unknown frame type @", type);
+            }
+        } catch (MessageDataException e) {
+            handleDataError(e);
+        } catch (Exception e) {
+            Log.err(e);
+        }
+    }
 
-                    Object data = JsonUtils.readJsonAsClass(node.get("data").toString(), handler.getClazz());
-                    var event = new ServerMessageEvent(id, method, data);
+    // The id is known, so whoever waits on it gets the error instead of a timeout
+    private void handleDataError(MessageDataException e) {
+        var envelope = e.getEnvelope();
 
-                    try {
-                        handler.apply(event);
-                    } catch (Exception e) {
-                        event.error(e.getMessage());
-                    }
-                } else {
+        Log.err(e);
 
-                    var request = requests.get(id);
+        if (envelope.getType().equals("response")) {
+            var request = requests.get(envelope.getId());
 
-                    if (request != null) {
-                        request.complete(input);
-                    } else {
-                        throw new RuntimeException("No request found for id " + id);
-                    }
+            if (request != null) {
+                request.future.completeExceptionally(e);
+            }
+        } else if (envelope.getType().equals("request")) {
+            send(new ServerExchange()//
+                    .error()//
+                    .setId(envelope.getId())//
+                    .setMethod(envelope.getMethod())//
+                    .setData(e.getMessage()));
+        }
+    }
+
+    public void handleMessage(String input) {
+        handleMessage(JsonUtils.readMessage(input, this::getDataClass));
+    }
+
+    public void handleMessage(ServerExchange message) {
+        // The handshake switches the framing of everything that follows it in the input,
+        // so it has to run before the decoder reads the next frame
+        if (message.getType().equals("request") && message.getMethod().equals("HANDSHAKE")) {
+            handleRequest(message);
+            return;
+        }
+
+        if (message.getType().equals("request")) {
+            var lane = lanes.getOrDefault(message.getMethod(), defaultLane);
+            var methodMetrics = metrics.of(handlers.containsKey(message.getMethod()) ? message.getMethod() : GatewayMetrics.UNKNOWN);
+            long queuedAt = System.nanoTime();
+
+            Runnable task = () -> {
+                long startedAt = System.nanoTime();
+                methodMetrics.queued.recordSince(queuedAt);
+
+                try {
+                    handleRequest(message);
+                } catch (Exception e) {
+                    methodMetrics.errors.incrementAndGet();
+                    Log.err(e);
+                } finally {
+                    methodMetrics.handler.recordSince(startedAt);
                 }
-            } catch (Exception e) {
-                Log.err(e);
+            };
+
+            if (!lane.tryExecute(task)) {
+                methodMetrics.rejected.incrementAndGet();
+
+                send(new ServerExchange()//
+                        .error()//
+                        .setId(message.getId())//
+                        .setMethod(message.getMethod())//
+                        .setData("Server overloaded, lane " + lane.getName() + " is full"));
             }
-        });
+            return;
+        }
+
+        var request = requests.get(message.getId());
+
+        if (request == null) {
+            Log.err("No request found for id " + message.getId());
+            return;
+        }
+
+        // Responses never wait behind handler work, if even their lane is full complete them right here
+        if (!responseLane.tryExecute(() -> request.future.complete(message))) {
+            request.future.complete(message);
+        }
+    }
+
+    public GatewayMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getPendingRequests() {
+        return requests.size();
+    }
+
+    public int getPendingWrites() {
+        return writer.pending();
+    }
+
+    public void lane(String method, int concurrency, int capacity) {
+        lanes.put(method, new Bulkhead(method, concurrency, capacity));
+    }
+
+    public List<Bulkhead> getLanes() {
+        var result = new ArrayList<Bulkhead>();
+
+        result.add(responseLane);
+        result.add(defaultLane);
+        result.addAll(lanes.values());
+
+        return result;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void handleRequest(ServerExchange message) {
+        ServerMessageHandler handler = handlers.get(message.getMethod());
+
+        if (handler == null) {
+            throw new RuntimeException("No handler for method " + message.getMethod());
+        }
+
+        var event = new ServerMessageEvent(message.getId(), message.getMethod(), message.getData(), (Cons<ServerExchange>) this::send);
+
+        try {
+            handler.apply(event);
+        } catch (Exception e) {
+            metrics.of(message.getMethod()).errors.incrementAndGet();
+            event.error(e.getMessage());
+        }
+    }
+
+    private void onHandshake(ServerMessageEvent<HandshakeMessage> event) {
+        var framing = Framing.from(event.getPayload().getFraming());
+
+        event.response(new HandshakeMessage()//
+                .setFraming(framing.name())//
+                .setFramings(Arrays.stream(Framing.values()).map(Framing::name).toList())//
+                .setBatch(event.getPayload().getBatch()));
+
+        writer.setFraming(framing);
+        decoder.setFraming(framing);
+
+        var batch = Boolean.TRUE.equals(event.getPayload().getBatch());
+
+        if (batchEmit && !batch) {
+            batchEmitter.flushAll();
+        }
+
+        batchEmit = batch;
+
+        if (framing != Framing.JSON && transport.sharesConsole() && console == null) {
+            // Logs would corrupt binary frames on stdout, send them as log frames instead
+            console = System.out;
+            System.setOut(new PrintStream(new LogFrameStream(writer), true, StandardCharsets.UTF_8));
+        } else if (framing == Framing.JSON && console != null) {
+            System.setOut(console);
+            console = null;
+        }
+
+        Log.info("Gateway framing set to @, batched emit @", framing, batchEmit ? "on" : "off");
+    }
+
+    private Class<?> getDataClass(ServerExchange envelope) {
+        if (envelope.getType().equals("request")) {
+            var handler = handlers.get(envelope.getMethod());
+
+            return handler == null ? null : handler.getClazz();
+        }
+
+        if (envelope.getType().equals("response")) {
+            var request = requests.get(envelope.getId());
+
+            return request == null ? null : request.clazz;
+        }
+
+        return JsonNode.class;
     }
 
     public <T> void on(String method, Class<T> clazz, Cons<ServerMessageEvent<T>> event) {
@@ -0,0 +1,94 @@
+package mindustrytool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import arc.func.Cons2;
+
+public class BatchEmitter {
+
+    private final Cons2<String, Object> emitter;
+    private final long windowMillis;
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "BatchEmitter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class Batch {
+        final String method;
+        List<Object> items = new ArrayList<>();
+        // Bumped on every flush, a window timer only flushes the generation it was started for
+        long generation;
+        ScheduledFuture<?> timer;
+
+        Batch(String method) {
+            this.method = method;
+        }
+    }
+
+    public BatchEmitter(Cons2<String, Object> emitter, long windowMillis, int maxEntries) {
+        this.emitter = emitter;
+        this.windowMillis = windowMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public void emit(String method, Object data) {
+        var batch = batches.computeIfAbsent(method, Batch::new);
+
+        synchronized (batch) {
+            batch.items.add(data);
+
+            if (batch.items.size() == 1) {
+                long generation = batch.generation;
+
+                batch.timer = flusher.schedule(() -> flush(batch, generation), windowMillis, TimeUnit.MILLISECONDS);
+            }
+
+            if (batch.items.size() >= maxEntries) {
+                flush(batch);
+            }
+        }
+    }
+
+    public void flushAll() {
+        batches.values().forEach(this::flush);
+    }
+
+    private void flush(Batch batch, long generation) {
+        synchronized (batch) {
+            // Already flushed by size or flushAll, the timer of the next batch is its own
+            if (batch.generation == generation) {
+                flush(batch);
+            }
+        }
+    }
+
+    private void flush(Batch batch) {
+        // Sending while holding the lock keeps batches of the same method in order
+        synchronized (batch) {
+            if (batch.items.isEmpty()) {
+                return;
+            }
+
+            var items = batch.items;
+            batch.items = new ArrayList<>();
+            batch.generation++;
+
+            if (batch.timer != null) {
+                batch.timer.cancel(false);
+                batch.timer = null;
+            }
+
+            emitter.get(batch.method + "_BATCH", items);
+        }
+    }
+}
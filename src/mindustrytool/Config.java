@@ -3,6 +3,8 @@ package mindustrytool;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
+import arc.Core;
+
 public class Config {
 
     public static boolean isHub() {
@@ -12,6 +14,7 @@ public class Config {
     public static Boolean isLoaded = false;
 
     public static final Executor BACKGROUND_TASK_EXECUTOR = Executors.newSingleThreadExecutor();
+    public static final Executor GAME_THREAD_EXECUTOR = runnable -> Core.app.post(runnable);
 
     public static final String SERVER_IP = "103.20.96.24";
     public static final String DISCORD_INVITE_URL = "https://discord.com/invite/DCX5yrRUyp";
@@ -19,6 +22,59 @@ public class Config {
     public static final String RULE_URL = MINDUSTRY_TOOL_URL + "/rules";
 
     public static final int MAX_IDENTICAL_IPS = 3;
+
+    public static final mindustry.net.Administration.Config MAX_SUBNET_CONNECTIONS = new mindustry.net.Administration.Config(
+            "maxSubnetConnections", "Open connections allowed from one /24 (IPv4) or /64 (IPv6) subnet.", 12);
+    public static final mindustry.net.Administration.Config CONNECT_IP_BURST = new mindustry.net.Administration.Config(
+            "connectIpBurst", "Connection attempts one address can make in a burst.", 5);
+    public static final mindustry.net.Administration.Config CONNECT_IP_REFILL_PER_MINUTE = new mindustry.net.Administration.Config(
+            "connectIpRefillPerMinute", "Connection attempts one address regains per minute.", 30);
+    public static final mindustry.net.Administration.Config CONNECT_SUBNET_BURST = new mindustry.net.Administration.Config(
+            "connectSubnetBurst", "Connection attempts one subnet can make in a burst.", 20);
+    public static final mindustry.net.Administration.Config CONNECT_SUBNET_REFILL_PER_MINUTE = new mindustry.net.Administration.Config(
+            "connectSubnetRefillPerMinute", "Connection attempts one subnet regains per minute.", 120);
+    public static final mindustry.net.Administration.Config CONNECT_STRIKES_BEFORE_BAN = new mindustry.net.Administration.Config(
+            "connectStrikesBeforeBan", "Rate limited attempts before an address is DOS blacklisted.", 10);
+
+    public static final mindustry.net.Administration.Config GATEWAY_TRANSPORT = new mindustry.net.Administration.Config(
+            "gatewayTransport", "Gateway transport: stdio, uds or tcp. Needs a restart.", "stdio");
+    public static final mindustry.net.Administration.Config GATEWAY_ADDRESS = new mindustry.net.Administration.Config(
+            "gatewayAddress", "Socket path for uds, loopback port for tcp. Needs a restart.", "");
+
+    public static final long EMIT_BATCH_WINDOW_MILLIS = 50;
+    public static final int EMIT_BATCH_MAX_ENTRIES = 64;
+
+    public static final int STATS_PUSH_INTERVAL_SECONDS = 5;
+    // Heap usage moves constantly, only push it when it drifted this many MB
+    public static final long STATS_PUSH_RAM_DELTA_MB = 8;
+
+    public static final int IP_VERDICT_CACHE_SIZE = 4096;
+    public static final int IP_VERDICT_TTL_MINUTES = 10;
+    // Verdicts where a checker failed are retried sooner
+    public static final int IP_VERDICT_UNCERTAIN_TTL_SECONDS = 30;
+
+    // Effect packets sent to all clients together in one tick, effects over it wait for the next tick
+    public static final int EFFECT_PACKET_BUDGET_PER_TICK = 120;
+    // About the old 64 ms effect timer at 60 ticks per second
+    public static final int EFFECT_MIN_INTERVAL_TICKS = 4;
+
+    // Discovery pings answered per source address, and in total
+    public static final int DISCOVERY_BURST = 4;
+    public static final double DISCOVERY_REFILL_PER_SECOND = 1;
+    public static final int DISCOVERY_GLOBAL_PER_SECOND = 500;
+
+    public static final int CHAT_BURST = 5;
+    public static final double CHAT_REFILL_PER_SECOND = 0.5;
+    // Messages equal to one of a player's last few are dropped
+    public static final int CHAT_DUPLICATE_WINDOW = 4;
+    public static final int CHAT_STRIKES_BEFORE_MUTE = 5;
+    public static final int CHAT_MUTE_SECONDS = 60;
+
+    public static final int EXP_FLUSH_INTERVAL_SECONDS = 300;
+
+    public static final int PROFILE_CACHE_MAX_ENTRIES = 20000;
+    // Players not seen for this long are dropped when the profile file is compacted
+    public static final int PROFILE_CACHE_MAX_AGE_DAYS = 30;
     public static final String HUB_MESSAGE = """
             Command
             [yellow]/servers[white] to show server list
@@ -0,0 +1,80 @@
+package mindustrytool;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mindustrytool.messages.response.GatewayMetricsMessageResponse;
+import mindustrytool.messages.response.GatewayMetricsMessageResponse.LaneStats;
+import mindustrytool.messages.response.GatewayMetricsMessageResponse.LatencyStats;
+import mindustrytool.messages.response.GatewayMetricsMessageResponse.MethodStats;
+import mindustrytool.utils.LatencyHistogram;
+
+public class GatewayMetrics {
+
+    // Incoming methods without a handler share this entry, the peer picks their names
+    public static final String UNKNOWN = "unknown";
+
+    private final ConcurrentHashMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    public static class MethodMetrics {
+        // Round trip of our own requests to the backend
+        public final LatencyHistogram outbound = new LatencyHistogram();
+        // Time incoming requests spend waiting for a lane thread
+        public final LatencyHistogram queued = new LatencyHistogram();
+        // Time spent inside the handler
+        public final LatencyHistogram handler = new LatencyHistogram();
+
+        public final AtomicLong timeouts = new AtomicLong();
+        public final AtomicLong errors = new AtomicLong();
+        public final AtomicLong rejected = new AtomicLong();
+    }
+
+    public MethodMetrics of(String method) {
+        return methods.computeIfAbsent(method, k -> new MethodMetrics());
+    }
+
+    public GatewayMetricsMessageResponse snapshot(APIGateway gateway) {
+        List<MethodStats> methodStats = new ArrayList<>();
+
+        methods.forEach((method, metrics) -> methodStats.add(new MethodStats()//
+                .setMethod(method)//
+                .setOutbound(toStats(metrics.outbound))//
+                .setQueued(toStats(metrics.queued))//
+                .setHandler(toStats(metrics.handler))//
+                .setTimeouts(metrics.timeouts.get())//
+                .setErrors(metrics.errors.get())//
+                .setRejected(metrics.rejected.get())));
+
+        methodStats.sort(Comparator.comparing(MethodStats::getMethod));
+
+        var lanes = gateway.getLanes()//
+                .stream()//
+                .map(lane -> new LaneStats()//
+                        .setName(lane.getName())//
+                        .setActive(lane.getActive())//
+                        .setConcurrency(lane.getConcurrency())//
+                        .setQueued(lane.getQueued())//
+                        .setCapacity(lane.getCapacity())//
+                        .setRejected(lane.getRejected()))//
+                .toList();
+
+        return new GatewayMetricsMessageResponse()//
+                .setPendingRequests(gateway.getPendingRequests())//
+                .setPendingWrites(gateway.getPendingWrites())//
+                .setMethods(methodStats)//
+                .setLanes(lanes);
+    }
+
+    private static LatencyStats toStats(LatencyHistogram histogram) {
+        return new LatencyStats()//
+                .setCount(histogram.getCount())//
+                .setMean((long) histogram.getMean())//
+                .setP50(histogram.percentile(50))//
+                .setP99(histogram.percentile(99))//
+                .setP999(histogram.percentile(99.9))//
+                .setMax(histogram.getMax());
+    }
+}
@@ -18,9 +18,16 @@ import mindustrytool.handlers.ClientCommandHandler;
 import mindustrytool.handlers.EventHandler;
 import mindustrytool.handlers.ServerCommandHandler;
 import mindustrytool.handlers.RtvVoteHandler;
-import mindustrytool.messages.NotMessageException;
+import mindustrytool.transport.Transport;
+import mindustrytool.utils.ChatGuard;
+import mindustrytool.utils.ConnectionLimiter;
+import mindustrytool.utils.EffectScheduler;
 import mindustrytool.utils.Effects;
 import mindustrytool.utils.HudUtils;
+import mindustrytool.utils.IpVerdicts;
+import mindustrytool.utils.MapCatalog;
+import mindustrytool.utils.MapPreview;
+import mindustrytool.utils.ProfileCache;
 import mindustrytool.utils.VPNUtils;
 
 public class MindustryToolPlugin extends Plugin {
@@ -55,38 +62,44 @@ public class MindustryToolPlugin extends Plugin {
 
         Timer.schedule(() -> System.gc(), 0, 60);
 
-        Runnable inputReader = () -> {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-            String line;
-            try {
-                while ((line = reader.readLine()) != null) {
-                    try {
-                        apiGateway.handleMessage(line);
-                    } catch (NotMessageException ignored) {
+        apiGateway.setCommandHandler(this::handleCommandString);
+
+        var transport = Transport.create(mindustrytool.Config.GATEWAY_TRANSPORT.string(), mindustrytool.Config.GATEWAY_ADDRESS.string());
+
+        apiGateway.start(transport);
+
+        if (!transport.sharesConsole()) {
+            Runnable inputReader = () -> {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+                String line;
+                try {
+                    while ((line = reader.readLine()) != null) {
                         handleCommandString(line);
-                    } catch (Exception e) {
-                        e.printStackTrace();
                     }
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                System.out.println("Server closed");
-                System.exit(0);
-            }
-        };
+            };
 
-        var inputThread = new Thread(inputReader, "InputThread");
+            var inputThread = new Thread(inputReader, "InputThread");
 
-        inputThread.setDaemon(true);
-        inputThread.start();
+            inputThread.setDaemon(true);
+            inputThread.start();
+        }
 
         eventHandler.init();
         apiHandler.registerHandler(apiGateway);
 
         HudUtils.init();
         VPNUtils.init();
+        IpVerdicts.init();
+        ProfileCache.init();
         Effects.init();
+        EffectScheduler.init();
+        ConnectionLimiter.init();
+        ChatGuard.init();
+        MapPreview.init();
+        MapCatalog.init();
 
         Vars.mods.eachClass(p -> p.registerServerCommands(handler));
 
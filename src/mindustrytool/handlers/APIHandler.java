@@ -1,10 +1,9 @@
 package mindustrytool.handlers;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import arc.Core;
-import arc.files.Fi;
 import arc.util.Log;
 import mindustry.Vars;
 import mindustry.game.Gamemode;
@@ -16,17 +15,34 @@ import mindustry.maps.Map;
 import mindustry.maps.MapException;
 import mindustry.net.Administration.PlayerInfo;
 import mindustrytool.APIGateway;
+import mindustrytool.Config;
 import mindustrytool.MindustryToolPlugin;
 import mindustrytool.messages.request.SetPlayerMessageRequest;
 import mindustrytool.messages.request.StartServerMessageRequest;
+import mindustrytool.messages.request.StatsSubscribeMessageRequest;
 import mindustrytool.messages.response.StatsMessageResponse;
 import mindustrytool.utils.HudUtils;
+import mindustrytool.utils.MapCatalog;
+import mindustrytool.utils.MapPreview;
 
 public class APIHandler {
 
-    private final String TEMP_SAVE_NAME = "TempSave";
+    private final StatsPublisher statsPublisher = new StatsPublisher();
+
+    public void registerLanes(APIGateway apiGateway) {
+        apiGateway.lane("DETAIL_STATS", 1, 4);
+        apiGateway.lane("STATS", 2, 32);
+        apiGateway.lane("DISCORD_MESSAGE", 2, 128);
+        apiGateway.lane("SET_PLAYER", 2, 128);
+        apiGateway.lane("START", 1, 2);
+
+        apiGateway.cache("PLAYERS", 30, TimeUnit.SECONDS, 1);
+        apiGateway.cache("SERVERS", 5, TimeUnit.SECONDS, 32);
+    }
 
     public void registerHandler(APIGateway apiGateway) {
+        registerLanes(apiGateway);
+
         apiGateway.on("DISCORD_MESSAGE", String.class, event -> Call.sendMessage(event.getPayload()));
 
         apiGateway.on("STATS", String.class, event -> {
@@ -40,6 +56,17 @@ public class APIHandler {
             event.response(message);
         });
 
+        statsPublisher.init(apiGateway);
+
+        apiGateway.on("STATS_SUBSCRIBE", StatsSubscribeMessageRequest.class, event -> {
+            event.response(statsPublisher.subscribe(event.getPayload().getInterval()));
+        });
+
+        apiGateway.on("STATS_UNSUBSCRIBE", String.class, event -> {
+            statsPublisher.unsubscribe();
+            event.response(true);
+        });
+
         apiGateway.on("SERVER_LOADED", String.class, event -> {
             event.response(true);
         });
@@ -65,12 +92,22 @@ public class APIHandler {
                 }
             }
 
+            var entry = MapCatalog.getByFile(mapName);
             Map result;
-            try {
-                result = MapIO.createMap(Vars.customMapDirectory.child(mapName), true);
-            } catch (IOException e) {
-                throw new RuntimeException("Can not read map file: " + mapName);
+
+            if (entry != null) {
+                result = entry.map;
+            } else {
+                // Not picked up by the catalog yet
+                try {
+                    result = MapIO.createMap(Vars.customMapDirectory.child(mapName), true);
+                } catch (IOException e) {
+                    throw new RuntimeException("Can not read map file: " + mapName);
+                }
+
+                MapCatalog.refresh(mapName);
             }
+
             if (result == null) {
                 Log.err("No map with name '@' found.", mapName);
                 return;
@@ -102,50 +139,38 @@ public class APIHandler {
             var uuid = event.getPayload().getUuid();
             var isAdmin = event.getPayload().isAdmin();
 
-            PlayerInfo target = Vars.netServer.admins.getInfoOptional(uuid);
-            Player playert = Groups.player.find(p -> p.getInfo() == target);
-
-            if (target != null) {
-                if (isAdmin) {
-                    Vars.netServer.admins.adminPlayer(target.id, playert == null ? target.adminUsid : playert.usid());
+            // Slots, names and exp are only touched on the game thread
+            Config.GAME_THREAD_EXECUTOR.execute(() -> {
+                PlayerInfo target = Vars.netServer.admins.getInfoOptional(uuid);
+                Player playert = Groups.player.find(p -> p.getInfo() == target);
+
+                if (target != null) {
+                    if (isAdmin) {
+                        Vars.netServer.admins.adminPlayer(target.id, playert == null ? target.adminUsid : playert.usid());
+                    } else {
+                        Vars.netServer.admins.unAdminPlayer(target.id);
+                    }
+                    if (playert != null)
+                        playert.admin = isAdmin;
                 } else {
-                    Vars.netServer.admins.unAdminPlayer(target.id);
+                    Log.err("Nobody with that name or ID could be found. If adding an admin by name, make sure they're online; otherwise, use their UUID.");
+                }
+
+                if (playert == null) {
+                    return;
                 }
-                if (playert != null)
-                    playert.admin = isAdmin;
-            } else {
-                Log.err("Nobody with that name or ID could be found. If adding an admin by name, make sure they're online; otherwise, use their UUID.");
-            }
 
-            HudUtils.closeFollowDisplay(playert, HudUtils.LOGIN_UI);
+                HudUtils.closeFollowDisplay(playert, HudUtils.LOGIN_UI);
 
-            playert.sendMessage("[green]Logged in successfully");
+                playert.sendMessage("[green]Logged in successfully");
 
-            MindustryToolPlugin.eventHandler.addPlayer(event.getPayload(), playert);
+                MindustryToolPlugin.eventHandler.addPlayer(event.getPayload(), playert);
+            });
         });
     }
 
     private StatsMessageResponse getStats() {
-        var map = Vars.state.map;
-
-        String mapName = "";
-
-        if (map != null) {
-            mapName = map.name();
-        }
-
-        List<String> mods = Vars.mods.list().map(mod -> mod.name).list();
-
-        int players = Groups.player.size();
-
-        return new StatsMessageResponse()//
-                .setRamUsage(Core.app.getJavaHeap() / 1024 / 1024)
-                .setTotalRam(Runtime.getRuntime().maxMemory() / 1024 / 1024)//
-                .setPlayers(players)//
-                .setMapName(mapName)//
-                .setMods(mods)//
-                .setHosted(Vars.state.isGame());
-
+        return statsPublisher.snapshot();
     }
 
     private StatsMessageResponse getDetailStats() {
@@ -154,11 +179,7 @@ public class APIHandler {
         byte[] mapData = {};
 
         if (map != null) {
-            var pix = MapIO.generatePreview(Vars.world.tiles);
-            Fi file = Fi.tempFile(TEMP_SAVE_NAME);
-            file.writePng(pix);
-
-            mapData = file.readBytes();
+            mapData = MapPreview.getPng();
         }
 
         return getStats().setMapData(mapData);
@@ -3,6 +3,7 @@ package mindustrytool.handlers;
 import arc.math.Mathf;
 import arc.struct.Seq;
 import arc.util.CommandHandler;
+import arc.util.Log;
 import arc.util.Strings;
 import arc.util.Timer;
 import arc.util.Timer.Task;
@@ -10,7 +11,7 @@ import mindustry.Vars;
 import mindustry.gen.Call;
 import mindustry.gen.Groups;
 import mindustry.gen.Player;
-import mindustry.maps.Map;
+import mindustrytool.Config;
 import mindustrytool.MindustryToolPlugin;
 import mindustrytool.messages.request.PlayerMessageRequest;
 import mindustrytool.messages.request.SetPlayerMessageRequest;
@@ -38,22 +39,22 @@ public class ClientCommandHandler {
                 return;
             }
 
-            Seq<Map> maps = MindustryToolPlugin.voteHandler.getMaps();
+            var map = MindustryToolPlugin.voteHandler.getMap(mapId);
 
-            if (mapId < 0 || mapId > (maps.size - 1)) {
+            if (map == null) {
                 player.sendMessage("[red]Invalid map id");
                 return;
             }
             if (MindustryToolPlugin.voteHandler.isVoted(player, mapId)) {
                 Call.sendMessage("[red]RTV: " + player.name + " [accent]removed their vote for [yellow]"
-                        + maps.get(mapId).name());
+                        + map.name());
                 MindustryToolPlugin.voteHandler.removeVote(player, mapId);
                 return;
             }
             MindustryToolPlugin.voteHandler.vote(player, mapId);
             Call.sendMessage("[red]RTV: [accent]" + player.name() + " [white]Want to change map to [yellow]"
-                    + maps.get(mapId).name());
-            Call.sendMessage("[red]RTV: [white]Current Vote for [yellow]" + maps.get(mapId).name() + "[white]: [green]"
+                    + map.name());
+            Call.sendMessage("[red]RTV: [white]Current Vote for [yellow]" + map.name() + "[white]: [green]"
                     + MindustryToolPlugin.voteHandler.getVoteCount(mapId) + "/"
                     + MindustryToolPlugin.voteHandler.getRequire());
             Call.sendMessage("[red]RTV: [white]Use [yellow]/rtv " + mapId + " [white]to add your vote to this map !");
@@ -62,9 +63,9 @@ public class ClientCommandHandler {
 
         handler.<Player>register("maps", "[page]", "Display available maps", (args, player) -> {
             final int MAPS_PER_PAGE = 10;
-            Seq<Map> maps = MindustryToolPlugin.voteHandler.getMaps();
+            var maps = MindustryToolPlugin.voteHandler.getMaps();
             int page = 1;
-            int maxPage = maps.size / MAPS_PER_PAGE + (maps.size % MAPS_PER_PAGE == 0 ? 0 : 1);
+            int maxPage = maps.length / MAPS_PER_PAGE + (maps.length % MAPS_PER_PAGE == 0 ? 0 : 1);
             if (args.length == 0) {
                 page = 1;
 
@@ -85,11 +86,11 @@ public class ClientCommandHandler {
             player.sendMessage("[green]Available maps: [white](" + page + "/" + maxPage + ")");
 
             for (int i = 0; i < MAPS_PER_PAGE; i++) {
-                int mapId = (page - 1) * MAPS_PER_PAGE + i;
-                if (mapId > maps.size - 1) {
+                int index = (page - 1) * MAPS_PER_PAGE + i;
+                if (index > maps.length - 1) {
                     break;
                 }
-                player.sendMessage("[green]" + mapId + " [white]- [yellow]" + maps.get(mapId).name());
+                player.sendMessage("[green]" + maps[index].id + " [white]- [yellow]" + maps[index].name());
             }
         });
 
@@ -120,15 +121,21 @@ public class ClientCommandHandler {
                             .setName(team.name)//
                             .setColor(team.color.toString()));
 
-            var playerData = MindustryToolPlugin.apiGateway.execute("PLAYER_JOIN", request,
-                    SetPlayerMessageRequest.class);
+            MindustryToolPlugin.apiGateway.executeAsync("PLAYER_JOIN", request, SetPlayerMessageRequest.class)//
+                    .whenCompleteAsync((playerData, error) -> {
+                        if (error != null) {
+                            Log.err(error);
+                            player.sendMessage("[red]Can not login, please try again later");
+                            return;
+                        }
 
-            var loginLink = playerData.getLoginLink();
-            if (loginLink != null && !loginLink.isEmpty()) {
-                Call.openURI(player.con, loginLink);
-            } else {
-                player.sendMessage("Already logged in");
-            }
+                        var loginLink = playerData.getLoginLink();
+                        if (loginLink != null && !loginLink.isEmpty()) {
+                            Call.openURI(player.con, loginLink);
+                        } else {
+                            player.sendMessage("Already logged in");
+                        }
+                    }, Config.GAME_THREAD_EXECUTOR);
         });
 
         handler.<Player>register("vnw", "[number]", "Vote for sending a New Wave", (arg, player) -> {
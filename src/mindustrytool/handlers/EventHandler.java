@@ -1,15 +1,12 @@
 package mindustrytool.handlers;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import arc.Core;
 import arc.Events;
 import arc.graphics.Color;
 import arc.net.Server;
-import arc.struct.Seq;
 import arc.util.Log;
 import arc.util.Strings;
 import arc.util.Timer;
@@ -19,7 +16,6 @@ import lombok.Data;
 import lombok.experimental.Accessors;
 import mindustry.Vars;
 import mindustry.core.GameState.State;
-import mindustry.core.Version;
 import mindustry.entities.Effect;
 import mindustry.game.EventType;
 import mindustry.game.EventType.GameOverEvent;
@@ -45,47 +41,37 @@ import mindustrytool.messages.request.PlayerMessageRequest;
 import mindustrytool.messages.request.SetPlayerMessageRequest;
 import mindustrytool.messages.response.GetServersMessageResponse;
 import mindustrytool.type.Team;
+import mindustrytool.utils.ConnectionLimiter;
+import mindustrytool.utils.DiscoveryResponder;
+import mindustrytool.utils.EffectScheduler;
 import mindustrytool.utils.HudUtils;
-import mindustrytool.utils.Session;
-import mindustrytool.utils.Utils;
-import mindustrytool.utils.VPNUtils;
+import mindustrytool.utils.IpVerdicts;
+import mindustrytool.utils.MapPreloader;
+import mindustrytool.utils.PlayerRegistry;
+import mindustrytool.utils.ProfileCache;
+import mindustrytool.utils.ProfileCache.Profile;
 import mindustrytool.utils.HudUtils.Option;
 import mindustry.net.Administration.PlayerInfo;
 import mindustry.net.ArcNetProvider;
 import mindustry.net.Net;
-import mindustry.net.NetConnection;
 import mindustry.net.Packets;
 import mindustry.net.WorldReloader;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.time.Instant;
-import java.time.Duration;
 
 public class EventHandler {
 
     public Task lastTask;
 
+    public final ExpEngine expEngine = new ExpEngine();
+
     public Gamemode lastMode;
     public boolean inGameOverWait;
 
-    private long lastTimeGetPlayers = 0;
-    private int lastPlayers = 0;
-
-    private static final long GET_PLAYERS_DURATION_GAP = 1000 * 30;
-    public static final ConcurrentHashMap<String, PlayerMetaData> playerMeta = new ConcurrentHashMap<>();
     private static final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
 
-    private final List<String> icons = List.of(//
-            "", "", "", "", "", "", "", "", "", "", //
-            "", "", "", "", "", "", "", "", "", "", //
-            "", "", "", "", "", "", "", "", "", "", //
-            "", "", "", "", "", "", "", "", "", "", //
-            "", "", "", "", "", "", "", "", "", ""//
-    );
-
     @Data
     @Accessors(chain = true)
     public static class PlayerMetaData {
@@ -93,7 +79,12 @@ public class EventHandler {
         long exp;
         String name;
         boolean isLoggedIn;
-        Instant createdAt = Instant.now();
+
+        // Owned by ExpEngine
+        int level;
+        long nextLevelExp;
+        int pendingSeconds;
+        long unflushedExp;
     }
 
     public void init() {
@@ -103,7 +94,7 @@ public class EventHandler {
             lastMode = Gamemode.survival;
         }
 
-        executor.scheduleAtFixedRate(this::updatePlayerLevels, 0, 1, TimeUnit.MINUTES);
+        expEngine.init();
 
         if (!Vars.mods.orderedMods().isEmpty()) {
             Log.info("@ mods loaded.", Vars.mods.orderedMods().size);
@@ -120,12 +111,7 @@ public class EventHandler {
 
         Vars.net.handleServer(Packets.Connect.class, (con, packet) -> {
             Events.fire(new EventType.ConnectionEvent(con));
-            Seq<NetConnection> connections = Seq.with(Vars.net.getConnections()).select(other -> other.address.equals(con.address));
-            if (connections.size > Config.MAX_IDENTICAL_IPS) {
-                Vars.netServer.admins.blacklistDos(con.address);
-                connections.each(NetConnection::close);
-                Log.info("@ blacklisted because of ip spam", con.address);
-            }
+            ConnectionLimiter.onConnect(con);
         });
 
         Events.on(GameOverEvent.class, this::onGameOver);
@@ -138,62 +124,31 @@ public class EventHandler {
         Events.run(EventType.Trigger.update, this::onUpdate);
 
         if (Config.isHub()) {
+            DiscoveryResponder.init();
             executor.execute(() -> setupCustomServerDiscovery());
         }
     }
 
-    private void updatePlayerLevels() {
-        playerMeta.values().forEach(meta -> {
-            if (meta.isLoggedIn == false)
-                return;
-
-            var exp = meta.getExp() + Duration.between(meta.createdAt, Instant.now()).toMinutes();
-            var level = (int) Math.sqrt(exp);
-
-            setName(meta.player, meta.name, level);
-        });
-    }
-
-    private void setName(Player player, String name, int level) {
-        var icon = getIconBaseOnLevel(level);
-        var newName = "[white]%s [%s] %s".formatted(icon, level, name);
-
-        if (!newName.equals(player.name)) {
-            var hasLevelInName = player.name.matches("\\[\\d+\\]");
-
-            player.name(newName);
+    private void onPlayerConnect(PlayerConnect event) {
+        var player = event.player;
 
-            if (hasLevelInName) {
-                player.sendMessage("You have leveled up to level %s".formatted(level));
+        for (int i = 0; i < player.name().length(); i++) {
+            char ch = player.name().charAt(i);
+            if (ch <= '\u001f') {
+                player.kick("Invalid name");
+                return;
             }
         }
-    }
-
-    public String getIconBaseOnLevel(int level) {
-        var index = (int) (level / 3);
-
-        if (index >= icons.size()) {
-            index = icons.size() - 1;
-        }
 
-        return icons.get(index);
-    }
-
-    private void onPlayerConnect(PlayerConnect event) {
-        executor.submit(() -> {
-            var player = event.player;
-
-            for (int i = 0; i < player.name().length(); i++) {
-                char ch = player.name().charAt(i);
-                if (ch <= '\u001f') {
-                    player.kick("Invalid name");
-                }
-            }
+        IpVerdicts.check(player.ip())//
+                .thenAcceptAsync(verdict -> {
+                    if (!verdict.banned || player.con == null || !player.con.isConnected()) {
+                        return;
+                    }
 
-            if (VPNUtils.isBot(player)) {
-                player.kick("Your IP has been banned");
-            }
-        });
+                    Log.info("@ (@) kicked: @", player.plainName(), player.ip(), verdict.reason);
+                    player.kick("Your IP has been banned");
+                }, Config.GAME_THREAD_EXECUTOR);
     }
 
     private void setupCustomServerDiscovery() {
@@ -206,40 +161,11 @@ public class EventHandler {
             var server = (Server) serverField.get(provider);
 
             server.setDiscoveryHandler((address, handler) -> {
-                String name = mindustry.net.Administration.Config.serverName.string();
-                String description = mindustry.net.Administration.Config.desc.string();
-                String map = Vars.state.map.name();
-
-                ByteBuffer buffer = ByteBuffer.allocate(500);
-
-                int players = lastPlayers;
-
-                if (System.currentTimeMillis() - lastTimeGetPlayers > GET_PLAYERS_DURATION_GAP)
-                    try {
-                        players = MindustryToolPlugin.apiGateway.execute("PLAYERS", "", Integer.class);
-                        lastTimeGetPlayers = System.currentTimeMillis();
-                        lastPlayers = players;
-                    } catch (Exception e) {
-                        Log.err(e);
-                    }
-
-                writeString(buffer, name, 100);
-                writeString(buffer, map, 64);
-
-                buffer.putInt(Core.settings.getInt("totalPlayers", players));
-                buffer.putInt(Vars.state.wave);
-                buffer.putInt(Version.build);
-                writeString(buffer, Version.type);
+                var packet = DiscoveryResponder.get(address);
 
-                buffer.put((byte) Vars.state.rules.mode().ordinal());
-                buffer.putInt(Vars.netServer.admins.getPlayerLimit());
-
-                writeString(buffer, description, 100);
-                if (Vars.state.rules.modeName != null) {
-                    writeString(buffer, Vars.state.rules.modeName, 50);
+                if (packet != null) {
+                    handler.respond(packet);
                 }
-                buffer.position(0);
-                handler.respond(buffer);
             });
 
         } catch (Exception e) {
@@ -247,25 +173,10 @@ public class EventHandler {
         }
     }
 
-    private static void writeString(ByteBuffer buffer, String string) {
-        writeString(buffer, string, 32);
-    }
-
-    private static void writeString(ByteBuffer buffer, String string, int maxlen) {
-        byte[] bytes = string.getBytes(Vars.charset);
-        if (bytes.length > maxlen) {
-            bytes = Arrays.copyOfRange(bytes, 0, maxlen);
-        }
-
-        buffer.put((byte) bytes.length);
-        buffer.put(bytes);
-    }
-
     public void onUpdate() {
         Groups.player.each(p -> {
             if (p.unit().moving()) {
-                var effect = Effect.all.get((int) Math.random() % Effect.all.size);
-                Call.effect(effect, p.x, p.y, 0, Color.white);
+                EffectScheduler.queue(p, Effect.all.random(), p.x, p.y, 0, Color.white);
             }
         });
     }
@@ -274,18 +185,35 @@ public class EventHandler {
         Config.isLoaded = true;
     }
 
+    // Fires before the chat filter runs, so only commands are relayed here, ChatGuard
+    // relays chat messages once they are accepted
     public void onPlayerChat(PlayerChatEvent event) {
+        if (!event.message.startsWith(Vars.netServer.clientCommands.getPrefix())) {
+            return;
+        }
+
         executor.execute(() -> {
             Player player = event.player;
             String message = event.message;
 
             String chat = Strings.format("[@] => @", player.plainName(), message);
 
-            MindustryToolPlugin.apiGateway.emit("CHAT_MESSAGE", chat);
+            MindustryToolPlugin.apiGateway.emitBatched("CHAT_MESSAGE", chat);
         });
     }
 
     public void onPlayerLeave(PlayerLeave event) {
+        var slot = PlayerRegistry.remove(event.player);
+
+        if (slot != null) {
+            if (slot.pendingJoin != null) {
+                slot.pendingJoin.cancel(false);
+            }
+
+            expEngine.flush(slot);
+            MindustryToolPlugin.voteHandler.clearVotes(slot);
+        }
+
         executor.execute(() -> {
 
             Timer.schedule(() -> {
@@ -294,19 +222,11 @@ public class EventHandler {
                 }
             }, 10);
 
-            Player player = event.player;
-
-            Session.remove(player);
-
-            MindustryToolPlugin.voteHandler.removeVote(player);
-
             String playerName = event.player != null ? event.player.plainName() : "Unknown";
             String chat = Strings.format("@ leaved the server, current players: @", playerName, Groups.player.size() - 1);
 
-            playerMeta.remove(event.player.uuid());
-
-            MindustryToolPlugin.apiGateway.emit("CHAT_MESSAGE", chat);
-            MindustryToolPlugin.apiGateway.emit("PLAYER_LEAVE", new PlayerMessageRequest()//
+            MindustryToolPlugin.apiGateway.emitBatched("CHAT_MESSAGE", chat);
+            MindustryToolPlugin.apiGateway.emitBatched("PLAYER_LEAVE", new PlayerMessageRequest()//
                     .setName(playerName)//
                     .setIp(event.player.ip())//
                     .setUuid(event.player.uuid()));
@@ -314,64 +234,69 @@ public class EventHandler {
     }
 
     public void onPlayerJoin(PlayerJoin event) {
-        executor.execute(() -> {
+        if (Vars.state.isPaused()) {
+            Vars.state.set(State.playing);
+        }
 
-            if (Vars.state.isPaused()) {
-                Vars.state.set(State.playing);
-            }
+        var player = event.player;
 
-            var player = event.player;
+        var slot = PlayerRegistry.add(player);
 
-            Session.put(player);
+        PlayerInfo target = Vars.netServer.admins.getInfoOptional(player.uuid());
+        var cached = ProfileCache.get(player.uuid());
 
-            PlayerInfo target = Vars.netServer.admins.getInfoOptional(player.uuid());
+        // Returning players get their last known state now, PLAYER_JOIN reconciles it later
+        if (cached != null) {
+            setAdmin(target, player, cached.admin && cached.usid.equals(player.usid()));
+            applyProfile(player, cached);
+        } else if (target != null) {
+            Vars.netServer.admins.unAdminPlayer(target.id);
+        }
 
-            if (target != null) {
-                Vars.netServer.admins.unAdminPlayer(target.id);
-            }
+        String playerName = player != null ? player.plainName() : "Unknown";
+        String chat = Strings.format("@ joined the server, current players: @", playerName, Groups.player.size());
 
-            String playerName = player != null ? player.plainName() : "Unknown";
-            String chat = Strings.format("@ joined the server, current players: @", playerName, Groups.player.size());
+        var team = player.team();
+        var request = new PlayerMessageRequest()//
+                .setName(player.coloredName())//
+                .setIp(player.ip())//
+                .setUuid(player.uuid())//
+                .setTeam(new Team()//
+                        .setName(team.name)//
+                        .setColor(team.color.toString()));
 
-            var team = player.team();
-            var request = new PlayerMessageRequest()//
-                    .setName(player.coloredName())//
-                    .setIp(player.ip())//
-                    .setUuid(player.uuid())//
-                    .setTeam(new Team()//
-                            .setName(team.name)//
-                            .setColor(team.color.toString()));
+        MindustryToolPlugin.apiGateway.emitBatched("CHAT_MESSAGE", chat);
 
-            MindustryToolPlugin.apiGateway.emit("CHAT_MESSAGE", chat);
+        var join = MindustryToolPlugin.apiGateway.executeAsync("PLAYER_JOIN", request, SetPlayerMessageRequest.class);
 
-            var playerData = MindustryToolPlugin.apiGateway.execute("PLAYER_JOIN", request, SetPlayerMessageRequest.class);
+        slot.pendingJoin = join;
+        join.whenComplete((playerData, error) -> {
+            if (slot.pendingJoin == join) {
+                slot.pendingJoin = null;
+            }
+        });
 
+        join.thenAcceptAsync(playerData -> {
             if (Config.isHub()) {
                 sendHub(event.player, playerData.getLoginLink());
             } else {
                 if (playerData.getLoginLink() != null) {
                     player.sendMessage("[green]Logged in successfully");
-                } else {
-
                 }
             }
 
-            var isAdmin = playerData.isAdmin();
-
+            setAdmin(target, Groups.player.find(p -> p.getInfo() == target), playerData.isAdmin());
             addPlayer(playerData, player);
+        }, Config.GAME_THREAD_EXECUTOR)//
+                .exceptionally(error -> {
+                    if (!(error.getCause() instanceof CancellationException)) {
+                        Log.err(error);
 
-            Player playert = Groups.player.find(p -> p.getInfo() == target);
-
-            if (target != null) {
-                if (isAdmin) {
-                    Vars.netServer.admins.adminPlayer(target.id, playert == null ? target.adminUsid : playert.usid());
-                } else {
-                    Vars.netServer.admins.unAdminPlayer(target.id);
-                }
-                if (playert != null)
-                    playert.admin = isAdmin;
-            }
-        });
+                        // Admin from the cache may be stale, only the backend can grant it
+                        Config.GAME_THREAD_EXECUTOR.execute(() -> setAdmin(target, Groups.player.find(p -> p.getInfo() == target), false));
+                    }
+                    return null;
+                });
     }
 
     public void onPlay(PlayEvent event) {
@@ -404,7 +329,13 @@ public class EventHandler {
 
             Log.info("Selected next map to be @.", map.plainName());
 
-            play(() -> Vars.world.loadMap(map, map.applyRules(lastMode)));
+            MapPreloader.preload(map);
+
+            play(() -> {
+                Vars.world.loadMap(MapPreloader.take(map), map.applyRules(lastMode));
+                // The preloaded copy only exists to feed the loader, rotation compares against the original
+                Vars.state.map = map;
+            });
         } else {
             Vars.netServer.kickAll(KickReason.gameover);
             Vars.state.set(State.menu);
@@ -413,7 +344,7 @@ public class EventHandler {
 
         String message = Vars.state.rules.waves ? Strings.format("Game over! Reached wave @ with @ players online on map @.", Vars.state.wave, Groups.player.size(), Strings.capitalize(Vars.state.map.plainName())) : Strings.format("Game over! Team @ is victorious with @ players online on map @.", event.winner.name, Groups.player.size(), Strings.capitalize(Vars.state.map.plainName()));
 
-        MindustryToolPlugin.apiGateway.emit("CHAT_MESSAGE", message);
+        MindustryToolPlugin.apiGateway.emitBatched("CHAT_MESSAGE", message);
     }
 
     public void sendHub(Player player, String loginLink) {
@@ -446,56 +377,62 @@ public class EventHandler {
     }
 
     public void sendServerList(Player player, int page) {
-        Utils.executeExpectError(() -> {
-            var size = 8;
-            var request = new GetServersMessageRequest()//
-                    .setPage(page)//
-                    .setSize(size);
-
-            var response = MindustryToolPlugin.apiGateway.execute("SERVERS", request, GetServersMessageResponse.class);
-            var servers = response.getServers();
-            var options = new ArrayList<>(servers.stream()//
-                    .map(server -> HudUtils.option((p, state) -> onServerChoose(p, server.getId(), server.getName()), "%s   [white]|   [yellow]Players: %s   [white]|  [cyan]Map: %s   [white]|   [red]Mods: ".formatted(//
-                            server.getName(), //
-                            server.getPlayers(), //
-                            server.getMapName() == null ? "[red]Not playing" : server.getMapName(), //
-                            server.getMods())))//
-                    .toList());
-
-            if (page > 0) {
-                options.add(HudUtils.option((p, state) -> {
-                    HudUtils.closeFollowDisplay(p, HudUtils.SERVERS_UI);
-                    sendServerList(player, (int) state - 1);
-                }, "[yellow]Previous"));
-            }
-
-            if (servers.size() == size) {
-                options.add(HudUtils.option((p, state) -> {
-                    HudUtils.closeFollowDisplay(p, HudUtils.SERVERS_UI);
-                    sendServerList(player, (int) state + 1);
-                }, "[green]Next"));
+        var size = 8;
+        var request = new GetServersMessageRequest()//
+                .setPage(page)//
+                .setSize(size);
+
+        MindustryToolPlugin.apiGateway.executeAsync("SERVERS", request, GetServersMessageResponse.class)//
+                .thenAcceptAsync(response -> {
+                    var servers = response.getServers();
+                    var options = new ArrayList<>(servers.stream()//
+                            .map(server -> HudUtils.option((p, state) -> onServerChoose(p, server.getId(), server.getName()), "%s   [white]|   [yellow]Players: %s   [white]|  [cyan]Map: %s   [white]|   [red]Mods: ".formatted(//
+                                    server.getName(), //
+                                    server.getPlayers(), //
+                                    server.getMapName() == null ? "[red]Not playing" : server.getMapName(), //
+                                    server.getMods())))//
+                            .toList());
+
+                    if (page > 0) {
+                        options.add(HudUtils.option((p, state) -> {
+                            HudUtils.closeFollowDisplay(p, HudUtils.SERVERS_UI);
+                            sendServerList(player, (int) state - 1);
+                        }, "[yellow]Previous"));
+                    }
 
-            }
-            options.add(HudUtils.option((p, state) -> HudUtils.closeFollowDisplay(p, HudUtils.SERVERS_UI), "[red]Close"));
+                    if (servers.size() == size) {
+                        options.add(HudUtils.option((p, state) -> {
+                            HudUtils.closeFollowDisplay(p, HudUtils.SERVERS_UI);
+                            sendServerList(player, (int) state + 1);
+                        }, "[green]Next"));
 
-            HudUtils.showFollowDisplay(player, HudUtils.SERVERS_UI, "Servers", "", Integer.valueOf(page), options);
-        });
+                    }
+                    options.add(HudUtils.option((p, state) -> HudUtils.closeFollowDisplay(p, HudUtils.SERVERS_UI), "[red]Close"));
+
+                    HudUtils.showFollowDisplay(player, HudUtils.SERVERS_UI, "Servers", "", Integer.valueOf(page), options);
+                }, Config.GAME_THREAD_EXECUTOR)//
+                .exceptionally(error -> {
+                    Log.err(error);
+                    return null;
+                });
     }
 
     public void onServerChoose(Player player, String id, String name) {
         HudUtils.closeFollowDisplay(player, HudUtils.SERVERS_UI);
-        Utils.executeExpectError(() -> {
-            player.sendMessage("[green]Starting server [white]%s, [white]redirection will happen soon".formatted(name));
+        player.sendMessage("[green]Starting server [white]%s, [white]redirection will happen soon".formatted(name));
+
+        MindustryToolPlugin.apiGateway.executeAsync("START_SERVER", id, Integer.class)//
+                .whenCompleteAsync((port, error) -> {
+                    if (error != null) {
+                        Log.err(error);
+                        player.sendMessage("Error: Can not load server");
+                        return;
+                    }
 
-            try {
-                var data = MindustryToolPlugin.apiGateway.execute("START_SERVER", id, Integer.class);
-                player.sendMessage("[green]Redirecting");
-                Call.sendMessage("%s [green]redirecting to server [white]%s, use [green]/servers[white] to follow".formatted(player.coloredName(), name));
-                Call.connect(player.con, Config.SERVER_IP, data);
-            } catch (Exception e) {
-                player.sendMessage("Error: Can not load server");
-            }
-        });
+                    player.sendMessage("[green]Redirecting");
+                    Call.sendMessage("%s [green]redirecting to server [white]%s, use [green]/servers[white] to follow".formatted(player.coloredName(), name));
+                    Call.connect(player.con, Config.SERVER_IP, port);
+                }, Config.GAME_THREAD_EXECUTOR);
     }
 
     public void cancelPlayTask() {
@@ -513,17 +450,26 @@ public class EventHandler {
 
         Runnable reload = () -> {
             try {
+                long start = System.nanoTime();
+
                 WorldReloader reloader = new WorldReloader();
                 reloader.begin();
+                long begun = System.nanoTime();
 
                 run.run();
+                long loaded = System.nanoTime();
 
                 Vars.state.rules = Vars.state.map.applyRules(lastMode);
                 Vars.logic.play();
+                long played = System.nanoTime();
 
                 reloader.end();
                 inGameOverWait = false;
 
+                Log.info("Loaded map @: begin @ms, load @ms, play @ms, send world @ms", Vars.state.map.plainName(),
+                        (begun - start) / 1_000_000, (loaded - begun) / 1_000_000, (played - loaded) / 1_000_000,
+                        (System.nanoTime() - played) / 1_000_000);
+
             } catch (MapException e) {
                 Log.err("@: @", e.map.plainName(), e.getMessage());
                 Vars.net.closeServer();
@@ -538,20 +484,48 @@ public class EventHandler {
     }
 
     public void addPlayer(SetPlayerMessageRequest playerData, Player player) {
-        var uuid = playerData.getUuid();
-        var exp = playerData.getExp();
-        var name = playerData.getName();
-        var isLoggedIn = playerData.getLoginLink() == null;
+        if (player == null) {
+            return;
+        }
+
+        var profile = new Profile(player.uuid(), player.usid(), playerData.isAdmin(), playerData.getExp(),
+                playerData.getName(), playerData.getLoginLink() == null, System.currentTimeMillis());
+
+        ProfileCache.put(profile);
+        applyProfile(player, profile);
+    }
+
+    private void applyProfile(Player player, Profile profile) {
+        var slot = PlayerRegistry.get(player);
+
+        // Left before the backend answered
+        if (slot == null) {
+            return;
+        }
 
-        playerMeta.put(uuid, new PlayerMetaData()//
-                .setExp(exp)//
+        var meta = new PlayerMetaData()//
+                .setExp(profile.exp)//
                 .setPlayer(player)//
-                .setLoggedIn(isLoggedIn)//
-                .setName(name));
+                .setLoggedIn(profile.loggedIn)//
+                .setName(profile.name);
+
+        expEngine.start(meta, slot.meta);
+        slot.meta = meta;
+    }
+
+    private void setAdmin(PlayerInfo target, Player player, boolean isAdmin) {
+        if (target == null) {
+            return;
+        }
 
-        if (isLoggedIn) {
-            setName(player, name, (int) Math.sqrt(exp));
+        if (isAdmin) {
+            Vars.netServer.admins.adminPlayer(target.id, player == null ? target.adminUsid : player.usid());
+        } else {
+            Vars.netServer.admins.unAdminPlayer(target.id);
         }
+
+        if (player != null)
+            player.admin = isAdmin;
     }
 
 }
@@ -0,0 +1,158 @@
+package mindustrytool.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import arc.util.Timer;
+import mindustry.gen.Player;
+import mindustrytool.Config;
+import mindustrytool.MindustryToolPlugin;
+import mindustrytool.handlers.EventHandler.PlayerMetaData;
+import mindustrytool.messages.request.ExpUpdateMessageRequest;
+import mindustrytool.messages.request.ExpUpdateMessageRequest.PlayerExp;
+import mindustrytool.utils.PlayerRegistry;
+import mindustrytool.utils.ProfileCache;
+
+// Play time accrues into plain counters on the game thread. Names are only
+// rebuilt when a player crosses into the next level, and earned exp goes to
+// the backend in one EXP_UPDATE per interval plus one when a player leaves.
+public class ExpEngine {
+
+    private static final int TICK_SECONDS = 10;
+    private static final int SECONDS_PER_EXP = 60;
+
+    private final List<String> icons = List.of(//
+            "", "", "", "", "", "", "", "", "", "", //
+            "", "", "", "", "", "", "", "", "", "", //
+            "", "", "", "", "", "", "", "", "", "", //
+            "", "", "", "", "", "", "", "", "", "", //
+            "", "", "", "", "", "", "", "", "", ""//
+    );
+
+    // Level -> rendered name prefix
+    private final ArrayList<String> prefixes = new ArrayList<>();
+
+    public void init() {
+        Timer.schedule(this::tick, TICK_SECONDS, TICK_SECONDS);
+        Timer.schedule(this::flush, Config.EXP_FLUSH_INTERVAL_SECONDS, Config.EXP_FLUSH_INTERVAL_SECONDS);
+    }
+
+    // Takes over a player's new metadata, keeping exp the previous one had not sent yet
+    public void start(PlayerMetaData meta, PlayerMetaData previous) {
+        if (previous != null) {
+            meta.exp += previous.unflushedExp;
+            meta.unflushedExp = previous.unflushedExp;
+            meta.pendingSeconds = previous.pendingSeconds;
+        }
+
+        meta.level = levelOf(meta.exp);
+        meta.nextLevelExp = (long) (meta.level + 1) * (meta.level + 1);
+
+        if (meta.isLoggedIn) {
+            setName(meta.player, meta.name, meta.level, false);
+        }
+    }
+
+    private void tick() {
+        for (var slot : PlayerRegistry.all()) {
+            var meta = slot.meta;
+
+            if (meta == null || meta.isLoggedIn == false)
+                continue;
+
+            meta.pendingSeconds += TICK_SECONDS;
+
+            if (meta.pendingSeconds < SECONDS_PER_EXP)
+                continue;
+
+            meta.pendingSeconds -= SECONDS_PER_EXP;
+            meta.exp++;
+            meta.unflushedExp++;
+
+            if (meta.exp < meta.nextLevelExp)
+                continue;
+
+            meta.level = levelOf(meta.exp);
+            meta.nextLevelExp = (long) (meta.level + 1) * (meta.level + 1);
+
+            setName(meta.player, meta.name, meta.level, true);
+        }
+    }
+
+    public void flush() {
+        var players = new ArrayList<PlayerExp>();
+
+        for (var slot : PlayerRegistry.all()) {
+            var meta = slot.meta;
+
+            if (meta != null && meta.unflushedExp > 0) {
+                players.add(new PlayerExp().setUuid(slot.uuid).setExp(meta.unflushedExp));
+                meta.unflushedExp = 0;
+            }
+        }
+
+        if (!players.isEmpty()) {
+            MindustryToolPlugin.apiGateway.emit("EXP_UPDATE", new ExpUpdateMessageRequest().setPlayers(players));
+        }
+    }
+
+    // Called once the player left, so the slot is no longer in the registry
+    public void flush(PlayerRegistry.Slot slot) {
+        var meta = slot.meta;
+
+        if (meta == null) {
+            return;
+        }
+
+        if (meta.unflushedExp != 0) {
+            MindustryToolPlugin.apiGateway.emit("EXP_UPDATE", new ExpUpdateMessageRequest()//
+                    .setPlayers(List.of(new PlayerExp().setUuid(slot.uuid).setExp(meta.unflushedExp))));
+
+            meta.unflushedExp = 0;
+        }
+
+        // Exp sent by the periodic flush is not in the cache yet either
+        var cached = ProfileCache.get(slot.uuid);
+
+        if (cached != null) {
+            ProfileCache.put(cached.withExp(meta.exp));
+        }
+    }
+
+    public static int levelOf(long exp) {
+        return (int) Math.sqrt(exp);
+    }
+
+    private void setName(Player player, String name, int level, boolean leveledUp) {
+        var newName = getPrefix(level) + name;
+
+        if (!newName.equals(player.name)) {
+            player.name(newName);
+            PlayerRegistry.rename(player);
+
+            if (leveledUp) {
+                player.sendMessage("You have leveled up to level %s".formatted(level));
+            }
+        }
+    }
+
+    private String getPrefix(int level) {
+        while (prefixes.size() <= level) {
+            int next = prefixes.size();
+
+            prefixes.add("[white]%s [%s] ".formatted(getIconBaseOnLevel(next), next));
+        }
+
+        return prefixes.get(level);
+    }
+
+    public String getIconBaseOnLevel(int level) {
+        var index = (int) (level / 3);
+
+        if (index >= icons.size()) {
+            index = icons.size() - 1;
+        }
+
+        return icons.get(index);
+    }
+}
@@ -1,53 +1,51 @@
 package mindustrytool.handlers;
 
-import java.util.HashMap;
-
 import arc.Events;
-import arc.struct.Seq;
+import arc.struct.IntIntMap;
 import mindustry.Vars;
 import mindustry.game.EventType;
 import mindustry.game.Team;
 import mindustry.gen.Call;
 import mindustry.gen.Groups;
 import mindustry.gen.Player;
-import mindustry.maps.Map;
+import mindustrytool.utils.MapCatalog;
+import mindustrytool.utils.PlayerRegistry;
 
+// Votes live in each player's registry slot, a leaving player's votes are
+// dropped through clearVotes. Counts per map are kept alongside, game thread only.
 public class RtvVoteHandler {
-    public HashMap<Integer, Seq<String>> votes = new HashMap<>();
     public double ratio = 0.6;
 
+    private final IntIntMap counts = new IntIntMap();
+
     public void reset() {
-        votes.clear();
+        for (var slot : PlayerRegistry.all()) {
+            slot.rtvVotes.clear();
+        }
+
+        counts.clear();
     }
 
     public void vote(Player player, int mapId) {
-        var vote = votes.get(mapId);
+        var slot = PlayerRegistry.get(player);
 
-        if (vote == null) {
-            vote = new Seq<>();
-            votes.put(mapId, vote);
+        if (slot != null && slot.rtvVotes.add(mapId)) {
+            counts.put(mapId, counts.get(mapId, 0) + 1);
         }
-
-        vote.add(player.uuid());
     }
 
     public void removeVote(Player player, int mapId) {
-        var vote = votes.get(mapId);
+        var slot = PlayerRegistry.get(player);
 
-        if (vote == null) {
-            return;
+        if (slot != null && slot.rtvVotes.remove(mapId)) {
+            decrement(mapId);
         }
-
-        vote.remove(player.uuid());
     }
 
     public boolean isVoted(Player player, int mapId) {
-        var vote = votes.get(mapId);
+        var slot = PlayerRegistry.get(player);
 
-        if (vote == null) {
-            return false;
-        }
-        return vote.contains(player.uuid());
+        return slot != null && slot.rtvVotes.contains(mapId);
     }
 
     public int getRequire() {
@@ -55,28 +53,57 @@ public class RtvVoteHandler {
     }
 
     public int getVoteCount(int mapId) {
-        var vote = votes.get(mapId);
+        return counts.get(mapId, 0);
+    }
+
+    public void removeVote(Player player) {
+        clearVotes(PlayerRegistry.get(player));
+    }
 
-        if (vote == null) {
-            return 0;
+    // Also called with the slot of a player that already left the registry
+    public void clearVotes(PlayerRegistry.Slot slot) {
+        if (slot == null) {
+            return;
+        }
+
+        var votes = slot.rtvVotes.iterator();
+
+        while (votes.hasNext) {
+            decrement(votes.next());
         }
-        return vote.size;
+
+        slot.rtvVotes.clear();
     }
 
-    public void removeVote(Player player) {
-        for (Seq<String> vote : votes.values()) {
-            vote.remove(player.uuid());
+    private void decrement(int mapId) {
+        int count = counts.get(mapId, 0) - 1;
+
+        if (count > 0) {
+            counts.put(mapId, count);
+        } else {
+            counts.remove(mapId, 0);
         }
     }
 
-    public Seq<Map> getMaps() {
-        return Vars.maps.customMaps();
+    // Ids are catalog ids, they stay the same when maps are added or removed
+    public MapCatalog.Entry getMap(int mapId) {
+        return MapCatalog.get(mapId);
+    }
+
+    public MapCatalog.Entry[] getMaps() {
+        return MapCatalog.all();
     }
 
     public void check(int mapId) {
         if (getVoteCount(mapId) >= getRequire()) {
             Call.sendMessage("[red]RTV: [green]Vote passed! Changing map...");
-            Vars.maps.setNextMapOverride(getMaps().get(mapId));
+            var map = getMap(mapId);
+
+            if (map == null) {
+                return;
+            }
+
+            Vars.maps.setNextMapOverride(map.map);
             reset();
             Events.fire(new EventType.GameOverEvent(Team.crux));
             return;
@@ -32,6 +32,12 @@ import mindustry.net.Administration.PlayerInfo;
 import mindustry.net.Packets.KickReason;
 import mindustry.type.Item;
 import mindustrytool.MindustryToolPlugin;
+import mindustrytool.messages.response.GatewayMetricsMessageResponse.LatencyStats;
+import mindustrytool.utils.ChatGuard;
+import mindustrytool.utils.ConnectionLimiter;
+import mindustrytool.utils.DiscoveryResponder;
+import mindustrytool.utils.IpVerdicts;
+import mindustrytool.utils.MapCatalog;
 
 public class ServerCommandHandler {
 
@@ -158,16 +164,10 @@ public class ServerCommandHandler {
                     Log.info("Map directory: &fi@", Vars.customMapDirectory.file().getAbsoluteFile().toString());
                 });
 
-        handler.register("reloadmaps", "Reload all maps from disk.", arg -> {
-            int beforeMaps = Vars.maps.all().size;
-            Vars.maps.reload();
-            if (Vars.maps.all().size > beforeMaps) {
-                Log.info("@ new map(s) found and reloaded.", Vars.maps.all().size - beforeMaps);
-            } else if (Vars.maps.all().size < beforeMaps) {
-                Log.info("@ old map(s) deleted.", beforeMaps - Vars.maps.all().size);
-            } else {
-                Log.info("Maps reloaded.");
-            }
+        handler.register("reloadmaps", "Reload changed maps from disk.", arg -> {
+            // Only changed files are parsed, each change is logged as it is applied
+            MapCatalog.reload();
+            Log.info("Checking @ maps for changes.", MapCatalog.size());
         });
 
         handler.register("status", "Display server status.", arg -> {
@@ -690,5 +690,52 @@ public class ServerCommandHandler {
             int post = (int) (Core.app.getJavaHeap() / 1024 / 1024);
             Log.info("@ MB collected. Memory usage now at @ MB.", pre - post, post);
         });
+
+        handler.register("gateway-stats", "Display gateway latency percentiles (ms) per method.", arg -> {
+            var stats = MindustryToolPlugin.apiGateway.getMetrics().snapshot(MindustryToolPlugin.apiGateway);
+
+            Log.info("Gateway: @ pending requests, @ pending writes", stats.getPendingRequests(), stats.getPendingWrites());
+            for (var method : stats.getMethods()) {
+                Log.info("  &lb@&fr - timeouts: @, errors: @, rejected: @", method.getMethod(), method.getTimeouts(),
+                        method.getErrors(), method.getRejected());
+                logLatency("outbound", method.getOutbound());
+                logLatency("queued", method.getQueued());
+                logLatency("handler", method.getHandler());
+            }
+        });
+
+        handler.register("gateway-lanes", "Display gateway request lanes and their queue depth.", arg -> {
+            Log.info("Gateway lanes:");
+            for (var lane : MindustryToolPlugin.apiGateway.getLanes()) {
+                Log.info("  &lb@&fr - active: @/@, queued: @/@, rejected: @", lane.getName(), lane.getActive(),
+                        lane.getConcurrency(), lane.getQueued(), lane.getCapacity(), lane.getRejected());
+            }
+        });
+
+        handler.register("connections", "Display connection limiter counters and the busiest subnets.", arg -> {
+            Log.info("Connections: @ tracked", ConnectionLimiter.getTrackedConnections());
+            Log.info("  accepted: @, blacklisted: @", ConnectionLimiter.accepted.get(), ConnectionLimiter.blacklisted.get());
+            Log.info("  rejected - ip rate: @, subnet rate: @, subnet limit: @, identical ip: @",
+                    ConnectionLimiter.rejectedIpRate.get(), ConnectionLimiter.rejectedSubnetRate.get(),
+                    ConnectionLimiter.rejectedSubnetLimit.get(), ConnectionLimiter.rejectedIdenticalIp.get());
+            Log.info("  ip verdicts - checks: @, cache hits: @, banned: @", IpVerdicts.checks.get(), IpVerdicts.cacheHits.get(),
+                    IpVerdicts.banned.get());
+            Log.info("  discovery - served: @, dropped: @", DiscoveryResponder.served.get(), DiscoveryResponder.dropped.get());
+            Log.info("  chat - rate limited: @, duplicates: @, censored: @, muted: @, filter words: @", ChatGuard.rateLimited.get(),
+                    ChatGuard.duplicates.get(), ChatGuard.censored.get(), ChatGuard.muted.get(), ChatGuard.getWordCount());
+
+            for (var entry : ConnectionLimiter.getBusiestSubnets(5)) {
+                Log.info("  &lb@&fr - @ connections", entry.key, entry.value);
+            }
+        });
+    }
+
+    private void logLatency(String name, LatencyStats stats) {
+        if (stats.getCount() == 0) {
+            return;
+        }
+
+        Log.info("    @: count @, p50 @, p99 @, p999 @, max @", name, stats.getCount(), stats.getP50() / 1000f,
+                stats.getP99() / 1000f, stats.getP999() / 1000f, stats.getMax() / 1000f);
     }
 }
@@ -0,0 +1,145 @@
+package mindustrytool.handlers;
+
+import java.util.List;
+import java.util.Objects;
+
+import arc.Core;
+import arc.Events;
+import arc.util.Timer;
+import arc.util.Timer.Task;
+import mindustry.Vars;
+import mindustry.game.EventType.GameOverEvent;
+import mindustry.game.EventType.PlayEvent;
+import mindustry.game.EventType.PlayerJoin;
+import mindustry.game.EventType.PlayerLeave;
+import mindustry.gen.Groups;
+import mindustrytool.APIGateway;
+import mindustrytool.Config;
+import mindustrytool.messages.response.StatsMessageResponse;
+import mindustrytool.messages.response.StatsUpdateMessage;
+
+public class StatsPublisher {
+
+    private APIGateway apiGateway;
+
+    // Mods can not change while the server is running
+    private List<String> mods;
+
+    private boolean subscribed;
+    private Task task;
+    private StatsMessageResponse last;
+
+    public void init(APIGateway apiGateway) {
+        this.apiGateway = apiGateway;
+
+        // Posted so player counts and map state have settled when the update is built
+        Events.on(PlayerJoin.class, event -> Core.app.post(this::publish));
+        Events.on(PlayerLeave.class, event -> Core.app.post(this::publish));
+        Events.on(PlayEvent.class, event -> Core.app.post(this::publish));
+        Events.on(GameOverEvent.class, event -> Core.app.post(this::publish));
+    }
+
+    public List<String> getMods() {
+        if (mods == null) {
+            mods = Vars.mods.list().map(mod -> mod.name).list();
+        }
+
+        return mods;
+    }
+
+    public StatsMessageResponse snapshot() {
+        var map = Vars.state.map;
+
+        String mapName = "";
+
+        if (map != null) {
+            mapName = map.name();
+        }
+
+        return new StatsMessageResponse()//
+                .setRamUsage(Core.app.getJavaHeap() / 1024 / 1024)//
+                .setTotalRam(Runtime.getRuntime().maxMemory() / 1024 / 1024)//
+                .setPlayers(Groups.player.size())//
+                .setMapName(mapName)//
+                .setMods(getMods())//
+                .setHosted(Vars.state.isGame());
+    }
+
+    // Returns the full stats once, later changes arrive as STATS_UPDATE
+    public synchronized StatsMessageResponse subscribe(Integer interval) {
+        int seconds = interval == null ? Config.STATS_PUSH_INTERVAL_SECONDS : Math.max(1, interval);
+
+        if (task != null) {
+            task.cancel();
+        }
+
+        // Handed out as the response, so publish replaces it instead of changing it
+        last = snapshot();
+        subscribed = true;
+        task = Timer.schedule(this::publish, seconds, seconds);
+
+        return last;
+    }
+
+    public synchronized void unsubscribe() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        subscribed = false;
+        last = null;
+    }
+
+    public synchronized void publish() {
+        if (!subscribed) {
+            return;
+        }
+
+        var current = snapshot();
+        var update = new StatsUpdateMessage();
+        var next = new StatsMessageResponse()//
+                .setRamUsage(last.getRamUsage())//
+                .setTotalRam(last.getTotalRam())//
+                .setPlayers(last.getPlayers())//
+                .setMapName(last.getMapName())//
+                .setMods(last.getMods())//
+                .setHosted(last.isHosted());
+        boolean changed = false;
+
+        if (Math.abs(current.getRamUsage() - last.getRamUsage()) >= Config.STATS_PUSH_RAM_DELTA_MB) {
+            update.setRamUsage(current.getRamUsage());
+            next.setRamUsage(current.getRamUsage());
+            changed = true;
+        }
+
+        if (current.getTotalRam() != last.getTotalRam()) {
+            update.setTotalRam(current.getTotalRam());
+            next.setTotalRam(current.getTotalRam());
+            changed = true;
+        }
+
+        if (current.getPlayers() != last.getPlayers()) {
+            update.setPlayers(current.getPlayers());
+            next.setPlayers(current.getPlayers());
+            changed = true;
+        }
+
+        if (!Objects.equals(current.getMapName(), last.getMapName())) {
+            update.setMapName(current.getMapName());
+            next.setMapName(current.getMapName());
+            changed = true;
+        }
+
+        if (current.isHosted() != last.isHosted()) {
+            update.setHosted(current.isHosted());
+            next.setHosted(current.isHosted());
+            changed = true;
+        }
+
+        if (changed) {
+            last = next;
+            apiGateway.emit("STATS_UPDATE", update);
+        }
+    }
+}
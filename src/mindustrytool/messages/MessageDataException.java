@@ -0,0 +1,19 @@
+package mindustrytool.messages;
+
+import mindustrytool.error.NotJsonException;
+import mindustrytool.type.ServerExchange;
+
+// The envelope was read but its data could not be bound
+public class MessageDataException extends NotJsonException {
+
+    private final ServerExchange envelope;
+
+    public MessageDataException(ServerExchange envelope, Throwable cause) {
+        super("Can not parse data of " + envelope.getMethod() + ": " + cause.getMessage(), cause);
+        this.envelope = envelope;
+    }
+
+    public ServerExchange getEnvelope() {
+        return envelope;
+    }
+}
@@ -0,0 +1,13 @@
+package mindustrytool.messages.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CacheInvalidateMessageRequest {
+    private String method;
+    private JsonNode data;
+}
@@ -0,0 +1,20 @@
+package mindustrytool.messages.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+public class ExpUpdateMessageRequest {
+
+    private List<PlayerExp> players;
+
+    @Data
+    @Accessors(chain = true)
+    public static class PlayerExp {
+        private String uuid;
+        // Exp earned since the previous update, not the total
+        private long exp;
+    }
+}
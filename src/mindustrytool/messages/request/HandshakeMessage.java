@@ -0,0 +1,14 @@
+package mindustrytool.messages.request;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class HandshakeMessage {
+    private String framing;
+    private List<String> framings;
+    private Boolean batch;
+}
@@ -0,0 +1,11 @@
+package mindustrytool.messages.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class StatsSubscribeMessageRequest {
+    // Seconds between periodic updates, the plugin default is used when null
+    private Integer interval;
+}
@@ -0,0 +1,50 @@
+package mindustrytool.messages.response;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class GatewayMetricsMessageResponse {
+    private int pendingRequests;
+    private int pendingWrites;
+    private List<MethodStats> methods;
+    private List<LaneStats> lanes;
+
+    @Data
+    @Accessors(chain = true)
+    public static class MethodStats {
+        private String method;
+        private LatencyStats outbound;
+        private LatencyStats queued;
+        private LatencyStats handler;
+        private long timeouts;
+        private long errors;
+        private long rejected;
+    }
+
+    // All latencies are in microseconds
+    @Data
+    @Accessors(chain = true)
+    public static class LatencyStats {
+        private long count;
+        private long mean;
+        private long p50;
+        private long p99;
+        private long p999;
+        private long max;
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class LaneStats {
+        private String name;
+        private int active;
+        private int concurrency;
+        private int queued;
+        private int capacity;
+        private long rejected;
+    }
+}
@@ -0,0 +1,11 @@
+package mindustrytool.messages.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class IpCheckMessageResponse {
+    private boolean banned;
+    private String reason;
+}
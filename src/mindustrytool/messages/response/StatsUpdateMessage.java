@@ -0,0 +1,18 @@
+package mindustrytool.messages.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+// Only the fields that changed since the previous update are set
+@Data
+@Accessors(chain = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatsUpdateMessage {
+    private Long ramUsage;
+    private Long totalRam;
+    private Integer players;
+    private String mapName;
+    private Boolean hosted;
+}
@@ -0,0 +1,123 @@
+package mindustrytool.transport;
+
+import java.nio.charset.StandardCharsets;
+
+public class FrameDecoder {
+
+    public interface Listener {
+        void onLine(String line);
+
+        void onFrame(byte type, byte[] data, int offset, int length);
+    }
+
+    private final Listener listener;
+
+    private Framing framing = Framing.JSON;
+    private byte[] buffer = new byte[8192];
+    private int size = 0;
+    private int scanned = 0;
+
+    public FrameDecoder(Listener listener) {
+        this.listener = listener;
+    }
+
+    public Framing getFraming() {
+        return framing;
+    }
+
+    // Only call from a listener callback or the thread feeding this decoder,
+    // bytes after the current frame are decoded with the new framing
+    public void setFraming(Framing framing) {
+        this.framing = framing;
+    }
+
+    public void reset() {
+        framing = Framing.JSON;
+        size = 0;
+        scanned = 0;
+    }
+
+    public void feed(byte[] data, int offset, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(data, offset, buffer, size, length);
+        size += length;
+
+        int position = 0;
+        int consumed;
+
+        try {
+            while (position < size) {
+                consumed = framing == Framing.JSON ? readLine(position) : readFrame(position);
+
+                if (consumed == 0) {
+                    break;
+                }
+
+                position += consumed;
+            }
+        } catch (IllegalStateException e) {
+            // The stream is out of sync, nothing buffered can be trusted anymore
+            size = 0;
+            scanned = 0;
+            throw e;
+        }
+
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, size - position);
+            size -= position;
+            scanned = Math.max(0, scanned - position);
+        }
+    }
+
+    private int readLine(int position) {
+        for (int i = Math.max(position, scanned); i < size; i++) {
+            if (buffer[i] == '\n') {
+                int end = i > position && buffer[i - 1] == '\r' ? i - 1 : i;
+
+                scanned = i + 1;
+                listener.onLine(new String(buffer, position, end - position, StandardCharsets.UTF_8));
+
+                return i + 1 - position;
+            }
+        }
+
+        scanned = size;
+        return 0;
+    }
+
+    private int readFrame(int position) {
+        if (size - position < Framing.HEADER_LENGTH) {
+            return 0;
+        }
+
+        byte type = buffer[position];
+        int length = ((buffer[position + 1] & 0xFF) << 24)//
+                | ((buffer[position + 2] & 0xFF) << 16)//
+                | ((buffer[position + 3] & 0xFF) << 8)//
+                | (buffer[position + 4] & 0xFF);
+
+        if (length < 0 || length > Framing.MAX_FRAME_LENGTH) {
+            throw new IllegalStateException("Invalid frame length " + length);
+        }
+
+        if (size - position - Framing.HEADER_LENGTH < length) {
+            ensureCapacity(position + Framing.HEADER_LENGTH + length);
+            return 0;
+        }
+
+        scanned = position + Framing.HEADER_LENGTH + length;
+        listener.onFrame(type, buffer, position + Framing.HEADER_LENGTH, length);
+
+        return Framing.HEADER_LENGTH + length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= buffer.length) {
+            return;
+        }
+
+        byte[] next = new byte[Math.max(capacity, buffer.length * 2)];
+        System.arraycopy(buffer, 0, next, 0, size);
+        buffer = next;
+    }
+}
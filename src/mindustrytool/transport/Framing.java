@@ -0,0 +1,26 @@
+package mindustrytool.transport;
+
+public enum Framing {
+    JSON, CBOR;
+
+    public static final byte MESSAGE_FRAME = 1;
+    public static final byte COMMAND_FRAME = 2;
+    public static final byte LOG_FRAME = 3;
+
+    public static final int HEADER_LENGTH = 5;
+    public static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    public static Framing from(String name) {
+        if (name == null) {
+            return JSON;
+        }
+
+        for (Framing framing : values()) {
+            if (framing.name().equalsIgnoreCase(name)) {
+                return framing;
+            }
+        }
+
+        return JSON;
+    }
+}
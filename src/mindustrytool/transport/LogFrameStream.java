@@ -0,0 +1,36 @@
+package mindustrytool.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class LogFrameStream extends OutputStream {
+
+    private final MessageWriter writer;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+    public LogFrameStream(MessageWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (b == '\n') {
+            flushLine();
+        } else if (b != '\r') {
+            line.write(b);
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            write(bytes[i]);
+        }
+    }
+
+    private void flushLine() {
+        writer.writeLog(line.toString(StandardCharsets.UTF_8));
+        line.reset();
+    }
+}
@@ -0,0 +1,219 @@
+package mindustrytool.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import arc.util.Log;
+import mindustrytool.utils.JsonUtils;
+
+public class MessageWriter {
+
+    private static final int MAX_BATCH_BYTES = 64 * 1024;
+
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sleeping = new AtomicBoolean(false);
+    private final Batch batch = new Batch(MAX_BATCH_BYTES);
+
+    private Transport transport;
+    private Thread thread;
+
+    private Framing framing = Framing.JSON;
+    private JsonGenerator jsonGenerator;
+    private JsonGenerator cborGenerator;
+
+    private static class LogLine {
+        final String text;
+
+        LogLine(String text) {
+            this.text = text;
+        }
+    }
+
+    public MessageWriter() {
+        this.jsonGenerator = createJsonGenerator();
+        this.cborGenerator = createCborGenerator();
+    }
+
+    // Messages written before start are kept in the queue
+    public void start(Transport transport) {
+        this.transport = transport;
+
+        thread = new Thread(this::run, "GatewayWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void write(Object message) {
+        queue.offer(message);
+
+        if (thread != null && sleeping.get() && sleeping.compareAndSet(true, false)) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public void writeLog(String line) {
+        write(new LogLine(line));
+    }
+
+    // Applies to everything queued after this call, messages queued before keep the old framing
+    public void setFraming(Framing framing) {
+        write(framing);
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (true) {
+            Object message = queue.poll();
+
+            if (message == null) {
+                flush();
+
+                sleeping.set(true);
+
+                if (queue.isEmpty()) {
+                    LockSupport.park(this);
+                }
+
+                sleeping.set(false);
+                continue;
+            }
+
+            if (message instanceof Framing next) {
+                flush();
+                framing = next;
+                continue;
+            }
+
+            try {
+                encode(message);
+            } catch (Exception e) {
+                Log.err("Can not write message " + message, e);
+            }
+
+            if (batch.size() >= MAX_BATCH_BYTES) {
+                flush();
+            }
+        }
+    }
+
+    private void encode(Object message) throws IOException {
+        int mark = batch.size();
+
+        try {
+            if (message instanceof LogLine line) {
+                encodeLog(line.text);
+            } else if (framing == Framing.JSON) {
+                JsonUtils.objectMapper.writeValue(jsonGenerator, message);
+                jsonGenerator.writeRaw('\n');
+                jsonGenerator.flush();
+            } else {
+                int header = beginFrame(Framing.MESSAGE_FRAME);
+                JsonUtils.cborMapper.writeValue(cborGenerator, message);
+                cborGenerator.flush();
+                endFrame(header);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The generators may hold half a message, start over from the last complete one
+            jsonGenerator = createJsonGenerator();
+            cborGenerator = createCborGenerator();
+            batch.truncate(mark);
+            throw e;
+        }
+    }
+
+    private void encodeLog(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        if (framing == Framing.JSON) {
+            batch.write(bytes, 0, bytes.length);
+            batch.write('\n');
+        } else {
+            int header = beginFrame(Framing.LOG_FRAME);
+            batch.write(bytes, 0, bytes.length);
+            endFrame(header);
+        }
+    }
+
+    private int beginFrame(byte type) {
+        int header = batch.size();
+
+        batch.write(type);
+        batch.writeInt(0);
+
+        return header;
+    }
+
+    private void endFrame(int header) {
+        batch.setInt(header + 1, batch.size() - header - Framing.HEADER_LENGTH);
+    }
+
+    private void flush() {
+        if (batch.size() == 0) {
+            return;
+        }
+
+        try {
+            transport.write(batch.buffer(), 0, batch.size());
+        } catch (IOException e) {
+            Log.err("Can not write gateway batch", e);
+        } finally {
+            batch.reset();
+        }
+    }
+
+    private JsonGenerator createJsonGenerator() {
+        try {
+            var result = JsonUtils.objectMapper.getFactory().createGenerator(batch, JsonEncoding.UTF8);
+            result.setRootValueSeparator(null);
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException("Can not create json generator", e);
+        }
+    }
+
+    private JsonGenerator createCborGenerator() {
+        try {
+            return JsonUtils.cborMapper.getFactory().createGenerator(batch);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not create cbor generator", e);
+        }
+    }
+
+    private static class Batch extends ByteArrayOutputStream {
+        public Batch(int size) {
+            super(size);
+        }
+
+        public byte[] buffer() {
+            return buf;
+        }
+
+        public void truncate(int size) {
+            count = Math.min(count, size);
+        }
+
+        public void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        public void setInt(int index, int value) {
+            buf[index] = (byte) (value >>> 24);
+            buf[index + 1] = (byte) (value >>> 16);
+            buf[index + 2] = (byte) (value >>> 8);
+            buf[index + 3] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package mindustrytool.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import arc.util.Log;
+
+public class SocketTransport implements Transport {
+
+    private static final long MAX_PENDING_BYTES = 16 * 1024 * 1024;
+    private static final long MIN_RECONNECT_DELAY = 500;
+    private static final long MAX_RECONNECT_DELAY = 10_000;
+
+    private final ProtocolFamily family;
+    private final SocketAddress address;
+
+    private final ConcurrentLinkedQueue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean connected = false;
+    private Selector selector;
+    private SocketChannel channel;
+    private Receiver receiver;
+
+    public SocketTransport(ProtocolFamily family, SocketAddress address) {
+        this.family = family;
+        this.address = address;
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            throw new RuntimeException("Can not open selector", e);
+        }
+
+        var thread = new Thread(this::run, "GatewaySocket");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        if (!connected || pendingBytes.get() + length > MAX_PENDING_BYTES) {
+            if (dropped.getAndIncrement() % 1000 == 0) {
+                Log.warn("Gateway socket @ is not writable, dropped @ batches so far", address, dropped.get());
+            }
+            return;
+        }
+
+        byte[] copy = new byte[length];
+        System.arraycopy(data, offset, copy, 0, length);
+
+        outbound.offer(ByteBuffer.wrap(copy));
+        pendingBytes.addAndGet(length);
+        selector.wakeup();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void run() {
+        long delay = MIN_RECONNECT_DELAY;
+
+        while (true) {
+            try {
+                connect();
+                delay = MIN_RECONNECT_DELAY;
+                loop();
+            } catch (Exception e) {
+                Log.warn("Gateway socket @ disconnected: @", address, e.getMessage());
+            }
+
+            disconnect();
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            delay = Math.min(delay * 2, MAX_RECONNECT_DELAY);
+        }
+    }
+
+    private void connect() throws IOException {
+        channel = SocketChannel.open(family);
+        channel.configureBlocking(false);
+
+        if (channel.connect(address)) {
+            onConnected();
+        } else {
+            channel.register(selector, SelectionKey.OP_CONNECT);
+
+            while (!connected) {
+                selector.select(MAX_RECONNECT_DELAY);
+
+                if (selector.selectedKeys().isEmpty()) {
+                    throw new IOException("Connect timed out");
+                }
+
+                selector.selectedKeys().clear();
+
+                if (channel.finishConnect()) {
+                    onConnected();
+                }
+            }
+        }
+    }
+
+    private void onConnected() throws IOException {
+        channel.register(selector, SelectionKey.OP_READ);
+        connected = true;
+        receiver.connected();
+
+        Log.info("Gateway connected to @", address);
+    }
+
+    private void loop() throws IOException {
+        var buffer = ByteBuffer.allocate(64 * 1024);
+        var key = channel.keyFor(selector);
+
+        while (true) {
+            key.interestOps(outbound.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+
+            selector.select();
+            selector.selectedKeys().clear();
+
+            if (key.isReadable()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+
+                if (read == -1) {
+                    throw new EOFException("Closed by peer");
+                }
+
+                if (read > 0) {
+                    receiver.receive(buffer.array(), 0, read);
+                }
+            }
+
+            if (key.isValid() && key.isWritable()) {
+                flushOutbound();
+            }
+        }
+    }
+
+    private void flushOutbound() throws IOException {
+        ByteBuffer head;
+
+        while ((head = outbound.peek()) != null) {
+            int written = channel.write(head);
+            pendingBytes.addAndGet(-written);
+
+            if (head.hasRemaining()) {
+                return;
+            }
+
+            outbound.poll();
+        }
+    }
+
+    private void disconnect() {
+        boolean wasConnected = connected;
+
+        connected = false;
+
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            // Flush the cancelled key out of the selector before the next register
+            selector.selectNow();
+        } catch (IOException e) {
+            Log.err(e);
+        }
+
+        // Half written frames are meaningless on a new connection
+        outbound.clear();
+        pendingBytes.set(0);
+
+        if (wasConnected) {
+            receiver.disconnected();
+        }
+    }
+}
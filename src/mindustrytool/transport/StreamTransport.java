@@ -0,0 +1,66 @@
+package mindustrytool.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import arc.util.Log;
+
+public class StreamTransport implements Transport {
+
+    private final String name;
+    private final InputStream input;
+    private final OutputStream output;
+    private final Object outputLock;
+    private final Runnable onClose;
+
+    public StreamTransport(String name, InputStream input, OutputStream output, Object outputLock, Runnable onClose) {
+        this.name = name;
+        this.input = input;
+        this.output = output;
+        this.outputLock = outputLock;
+        this.onClose = onClose;
+    }
+
+    public StreamTransport(String name, InputStream input, OutputStream output) {
+        this(name, input, output, new Object(), () -> {
+        });
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        var thread = new Thread(() -> {
+            byte[] buffer = new byte[8192];
+            int read;
+
+            receiver.connected();
+
+            try {
+                while ((read = input.read(buffer)) != -1) {
+                    try {
+                        receiver.receive(buffer, 0, read);
+                    } catch (Exception e) {
+                        Log.err(e);
+                    }
+                }
+            } catch (Exception e) {
+                Log.err(e);
+            } finally {
+                onClose.run();
+            }
+        }, name);
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        // Holding the lock for a whole batch keeps protocol lines from
+        // interleaving with log output written to the same stream
+        synchronized (outputLock) {
+            output.write(data, offset, length);
+            output.flush();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package mindustrytool.transport;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+
+public interface Transport {
+
+    interface Receiver {
+        void receive(byte[] data, int offset, int length);
+
+        void connected();
+
+        // Whatever was written and not answered is lost
+        default void disconnected() {
+        }
+    }
+
+    void start(Receiver receiver);
+
+    // Only called from the gateway writer thread
+    void write(byte[] data, int offset, int length) throws IOException;
+
+    // Writes while not connected are dropped
+    default boolean isConnected() {
+        return true;
+    }
+
+    // Whether protocol bytes share the process console with logs and commands
+    default boolean sharesConsole() {
+        return false;
+    }
+
+    static Transport create(String type, String address) {
+        switch (type.toLowerCase()) {
+            case "uds":
+                if (address.isBlank()) {
+                    throw new IllegalArgumentException("gatewayAddress must be a socket path for the uds transport");
+                }
+
+                return new SocketTransport(StandardProtocolFamily.UNIX, UnixDomainSocketAddress.of(address));
+            case "tcp":
+                return new SocketTransport(StandardProtocolFamily.INET, new InetSocketAddress(InetAddress.getLoopbackAddress(), port(address)));
+            default:
+                return stdio();
+        }
+    }
+
+    private static int port(String address) {
+        int port;
+
+        try {
+            port = Integer.parseInt(address.trim());
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+
+        if (port < 1 || port > 65535) {
+            throw new IllegalArgumentException("gatewayAddress must be a port between 1 and 65535 for the tcp transport, got '" + address + "'");
+        }
+
+        return port;
+    }
+
+    static Transport stdio() {
+        return new StreamTransport("InputThread", System.in, new FileOutputStream(FileDescriptor.out), System.out, () -> {
+            System.out.println("Server closed");
+            System.exit(0);
+        }) {
+            @Override
+            public boolean sharesConsole() {
+                return true;
+            }
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package mindustrytool.type;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -11,6 +13,9 @@ public class ServerExchange {
     private Object data;
     private String type = "request";
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long deadline;
+
     public ServerExchange response() {
         type = "response";
         return this;
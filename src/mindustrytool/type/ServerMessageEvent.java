@@ -1,17 +1,19 @@
 package mindustrytool.type;
 
-import mindustrytool.utils.JsonUtils;
+import arc.func.Cons;
 
 public class ServerMessageEvent<T> {
     private final String id;
     private final String method;
 
     private final T payload;
+    private final Cons<ServerExchange> sender;
 
-    public ServerMessageEvent(String id, String method, T payload) {
+    public ServerMessageEvent(String id, String method, T payload, Cons<ServerExchange> sender) {
         this.id = id;
         this.method = method;
         this.payload = payload;
+        this.sender = sender;
     }
 
     public String getMethod() {
@@ -29,7 +31,7 @@ public class ServerMessageEvent<T> {
                 .setMethod(method)//
                 .setId(id);
 
-        System.out.println(JsonUtils.toJsonString(message));
+        sender.get(message);
     }
 
     public void error(Object data) {
@@ -39,6 +41,6 @@ public class ServerMessageEvent<T> {
                 .setData(data)//
                 .setId(id);
 
-        System.out.println(JsonUtils.toJsonString(message));
+        sender.get(message);
     }
 }
@@ -0,0 +1,146 @@
+package mindustrytool.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import arc.files.Fi;
+import arc.util.Log;
+import arc.util.Strings;
+import arc.util.Timer;
+import mindustry.Vars;
+import mindustry.gen.Player;
+import mindustrytool.Config;
+import mindustrytool.MindustryToolPlugin;
+
+// Chat filter run before a message is broadcast, accepted messages are relayed
+// to the backend from here. Rate limits and duplicate checks use counters in
+// the player's registry slot, listed words are censored with one automaton
+// pass, and repeated offenders are muted.
+public class ChatGuard {
+
+    private static final float RELOAD_CHECK_SECONDS = 30;
+
+    private static volatile WordMatcher matcher = WordMatcher.EMPTY;
+    private static long loadedModified = -1;
+
+    public static final AtomicLong rateLimited = new AtomicLong();
+    public static final AtomicLong duplicates = new AtomicLong();
+    public static final AtomicLong censored = new AtomicLong();
+    public static final AtomicLong muted = new AtomicLong();
+
+    public static void init() {
+        Vars.netServer.admins.addChatFilter(ChatGuard::filter);
+
+        Timer.schedule(() -> Utils.executeExpectError(ChatGuard::reloadIfChanged), 0, RELOAD_CHECK_SECONDS);
+    }
+
+    // One word or phrase per line, whole words only unless written as *word,
+    // # starts a comment
+    public static Fi getWordFile() {
+        return Vars.dataDirectory.child("chat-filter.txt");
+    }
+
+    public static int getWordCount() {
+        return matcher.size();
+    }
+
+    // Runs on the background executor, the built automaton is swapped in whole
+    private static void reloadIfChanged() {
+        var file = getWordFile();
+        long modified = file.exists() ? file.lastModified() : 0;
+
+        if (modified == loadedModified) {
+            return;
+        }
+
+        loadedModified = modified;
+
+        var builder = new WordMatcher.Builder();
+
+        if (file.exists()) {
+            for (var line : file.readString().split("\n")) {
+                int comment = line.indexOf('#');
+
+                builder.add(comment < 0 ? line : line.substring(0, comment));
+            }
+        }
+
+        matcher = builder.build();
+
+        Log.info("Loaded @ chat filter words", matcher.size());
+    }
+
+    private static String filter(Player player, String message) {
+        // Commands are checked by their own handlers
+        if (message.startsWith(Vars.netServer.clientCommands.getPrefix())) {
+            return message;
+        }
+
+        var slot = PlayerRegistry.get(player);
+
+        if (slot != null && !accept(slot, message)) {
+            return null;
+        }
+
+        var result = matcher.censor(message);
+
+        if (result != message) {
+            censored.incrementAndGet();
+        }
+
+        MindustryToolPlugin.apiGateway.emitBatched("CHAT_MESSAGE", Strings.format("[@] => @", player.plainName(), result));
+
+        return result;
+    }
+
+    private static boolean accept(PlayerRegistry.Slot slot, String message) {
+        var player = slot.player;
+
+        if (slot.session.isMuted) {
+            player.sendMessage("[scarlet]You are muted");
+            return false;
+        }
+
+        if (!slot.chatBucket.tryAcquire()) {
+            rateLimited.incrementAndGet();
+            strike(slot, "[scarlet]You are sending messages too fast");
+            return false;
+        }
+
+        int hash = WordMatcher.hash(message);
+
+        for (int recent : slot.recentChats) {
+            if (recent == hash) {
+                duplicates.incrementAndGet();
+                strike(slot, "[scarlet]Do not repeat the same message");
+                return false;
+            }
+        }
+
+        slot.recentChats[slot.recentChatIndex] = hash;
+        slot.recentChatIndex = (slot.recentChatIndex + 1) % slot.recentChats.length;
+
+        if (slot.chatStrikes > 0) {
+            slot.chatStrikes--;
+        }
+
+        return true;
+    }
+
+    private static void strike(PlayerRegistry.Slot slot, String warning) {
+        slot.chatStrikes++;
+
+        if (slot.chatStrikes < Config.CHAT_STRIKES_BEFORE_MUTE) {
+            slot.player.sendMessage(warning);
+            return;
+        }
+
+        slot.chatStrikes = 0;
+        slot.session.isMuted = true;
+        muted.incrementAndGet();
+
+        slot.player.sendMessage("[scarlet]You are muted for %s seconds because of spam".formatted(Config.CHAT_MUTE_SECONDS));
+        Log.info("@ muted for chat spam", slot.player.plainName());
+
+        Timer.schedule(() -> slot.session.isMuted = false, Config.CHAT_MUTE_SECONDS);
+    }
+}
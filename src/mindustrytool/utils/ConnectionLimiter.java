@@ -0,0 +1,239 @@
+package mindustrytool.utils;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import arc.Events;
+import arc.struct.ObjectIntMap;
+import arc.struct.Seq;
+import arc.util.Log;
+import arc.util.Timer;
+import mindustry.Vars;
+import mindustry.game.EventType.PlayerLeave;
+import mindustry.net.NetConnection;
+import mindustrytool.Config;
+
+// Per address and per subnet connection accounting for the Connect packet.
+// Counts are updated on connect and when a player leaves, so a connect never
+// scans every open connection. Connections that close before they became a
+// player are swept once a second.
+public class ConnectionLimiter {
+
+    private static final HashMap<String, Seq<NetConnection>> connectionsByIp = new HashMap<>();
+    private static final ObjectIntMap<String> connectionsBySubnet = new ObjectIntMap<>();
+
+    private static final HashMap<String, TokenBucket> ipBuckets = new HashMap<>();
+    private static final HashMap<String, TokenBucket> subnetBuckets = new HashMap<>();
+    private static final ObjectIntMap<String> strikes = new ObjectIntMap<>();
+
+    public static final AtomicLong accepted = new AtomicLong();
+    public static final AtomicLong rejectedIpRate = new AtomicLong();
+    public static final AtomicLong rejectedSubnetRate = new AtomicLong();
+    public static final AtomicLong rejectedSubnetLimit = new AtomicLong();
+    public static final AtomicLong rejectedIdenticalIp = new AtomicLong();
+    public static final AtomicLong blacklisted = new AtomicLong();
+
+    public static void init() {
+        Events.on(PlayerLeave.class, event -> onDisconnect(event.player.con));
+        Timer.schedule(ConnectionLimiter::sweep, 1, 1);
+    }
+
+    public static synchronized void onDisconnect(NetConnection con) {
+        if (con == null) {
+            return;
+        }
+
+        var connections = connectionsByIp.get(con.address);
+
+        if (connections == null || !connections.remove(con, true)) {
+            return;
+        }
+
+        var subnet = subnetOf(con.address);
+
+        connectionsBySubnet.increment(subnet, -1);
+
+        if (connectionsBySubnet.get(subnet, 0) <= 0) {
+            connectionsBySubnet.remove(subnet, 0);
+        }
+
+        if (connections.isEmpty()) {
+            connectionsByIp.remove(con.address);
+        }
+    }
+
+    // Returns false when the connection was closed
+    public static synchronized boolean onConnect(NetConnection con) {
+        var ip = con.address;
+        var subnet = subnetOf(ip);
+
+        var ipBucket = ipBuckets.computeIfAbsent(ip, k -> new TokenBucket(Config.CONNECT_IP_BURST.num(),
+                Config.CONNECT_IP_REFILL_PER_MINUTE.num() / 60d));
+
+        if (!ipBucket.tryAcquire()) {
+            rejectedIpRate.incrementAndGet();
+            strike(ip);
+            con.close();
+            return false;
+        }
+
+        var subnetBucket = subnetBuckets.computeIfAbsent(subnet, k -> new TokenBucket(Config.CONNECT_SUBNET_BURST.num(),
+                Config.CONNECT_SUBNET_REFILL_PER_MINUTE.num() / 60d));
+
+        if (!subnetBucket.tryAcquire()) {
+            rejectedSubnetRate.incrementAndGet();
+            strike(ip);
+            con.close();
+            return false;
+        }
+
+        var connections = connectionsByIp.get(ip);
+
+        if (connections == null) {
+            connections = new Seq<>(false, 4);
+            connectionsByIp.put(ip, connections);
+        }
+
+        purge(connections, subnet);
+
+        if (connections.size >= Config.MAX_IDENTICAL_IPS) {
+            rejectedIdenticalIp.incrementAndGet();
+            blacklist(ip, "ip spam");
+            connections.each(NetConnection::close);
+            con.close();
+            return false;
+        }
+
+        if (connectionsBySubnet.get(subnet, 0) >= Config.MAX_SUBNET_CONNECTIONS.num()) {
+            rejectedSubnetLimit.incrementAndGet();
+            con.close();
+            return false;
+        }
+
+        connections.add(con);
+        connectionsBySubnet.increment(subnet, 1);
+        accepted.incrementAndGet();
+
+        return true;
+    }
+
+    public static synchronized int getTrackedConnections() {
+        int total = 0;
+
+        for (var connections : connectionsByIp.values()) {
+            total += connections.size;
+        }
+
+        return total;
+    }
+
+    public static synchronized int getConnections(String ip) {
+        var connections = connectionsByIp.get(ip);
+
+        return connections == null ? 0 : connections.size;
+    }
+
+    public static synchronized Seq<ObjectIntMap.Entry<String>> getBusiestSubnets(int limit) {
+        var result = new Seq<ObjectIntMap.Entry<String>>();
+
+        for (var entry : connectionsBySubnet) {
+            var copy = new ObjectIntMap.Entry<String>();
+            copy.key = entry.key;
+            copy.value = entry.value;
+            result.add(copy);
+        }
+
+        result.sort(entry -> -entry.value);
+        result.truncate(Math.min(limit, result.size));
+
+        return result;
+    }
+
+    // The /24 for IPv4 and IPv4-mapped IPv6, the /64 for other IPv6 addresses
+    public static String subnetOf(String ip) {
+        int end = ip.indexOf('%');
+        if (end < 0) {
+            end = ip.length();
+        }
+
+        if (ip.indexOf(':') < 0) {
+            long v4 = SubnetTrie.parseV4(ip, 0, end);
+
+            return v4 < 0 ? ip : v4Subnet(v4);
+        }
+
+        var address = new long[2];
+
+        if (!SubnetTrie.parseV6(ip, 0, end, address)) {
+            return ip;
+        }
+
+        if (address[0] == 0 && (address[1] >>> 32) == 0xFFFFL) {
+            return v4Subnet(address[1] & 0xFFFFFFFFL);
+        }
+
+        long hi = address[0];
+
+        return Long.toHexString(hi >>> 48) + ":" + Long.toHexString(hi >>> 32 & 0xFFFF) + ":"
+                + Long.toHexString(hi >>> 16 & 0xFFFF) + ":" + Long.toHexString(hi & 0xFFFF);
+    }
+
+    private static String v4Subnet(long v4) {
+        return (v4 >>> 24) + "." + (v4 >>> 16 & 0xFF) + "." + (v4 >>> 8 & 0xFF);
+    }
+
+    private static void strike(String ip) {
+        strikes.increment(ip, 1);
+
+        if (strikes.get(ip, 0) >= Config.CONNECT_STRIKES_BEFORE_BAN.num()) {
+            strikes.remove(ip, 0);
+            blacklist(ip, "connection flood");
+        }
+    }
+
+    private static void blacklist(String ip, String reason) {
+        Vars.netServer.admins.blacklistDos(ip);
+        blacklisted.incrementAndGet();
+        Log.info("@ blacklisted because of @", ip, reason);
+    }
+
+    private static void purge(Seq<NetConnection> connections, String subnet) {
+        for (int i = connections.size - 1; i >= 0; i--) {
+            var con = connections.get(i);
+
+            if (!con.isConnected() || con.hasDisconnected) {
+                connections.remove(i);
+                connectionsBySubnet.increment(subnet, -1);
+            }
+        }
+
+        if (connectionsBySubnet.get(subnet, 0) <= 0) {
+            connectionsBySubnet.remove(subnet, 0);
+        }
+    }
+
+    private static synchronized void sweep() {
+        var iterator = connectionsByIp.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+
+            purge(entry.getValue(), subnetOf(entry.getKey()));
+
+            if (entry.getValue().isEmpty()) {
+                iterator.remove();
+            }
+        }
+
+        ipBuckets.values().removeIf(TokenBucket::isFull);
+        subnetBuckets.values().removeIf(TokenBucket::isFull);
+
+        // Strikes only count while the address keeps hitting its limit
+        var strikeIterator = strikes.keys();
+        while (strikeIterator.hasNext()) {
+            if (!ipBuckets.containsKey(strikeIterator.next())) {
+                strikeIterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package mindustrytool.utils;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import arc.Core;
+import arc.Events;
+import arc.util.Log;
+import arc.util.Timer;
+import mindustry.Vars;
+import mindustry.core.Version;
+import mindustry.game.EventType.PlayEvent;
+import mindustry.game.EventType.PlayerJoin;
+import mindustry.game.EventType.PlayerLeave;
+import mindustry.game.EventType.WaveEvent;
+import mindustry.gen.Groups;
+import mindustry.net.Administration;
+import mindustrytool.Config;
+import mindustrytool.MindustryToolPlugin;
+
+// Answers server browser pings with a prebuilt packet. The packet is rebuilt on
+// the game thread when something it shows changes, and pings are limited per
+// source address so the server can not be used to amplify UDP traffic.
+public class DiscoveryResponder {
+
+    private static final int PACKET_SIZE = 500;
+    private static final int PLAYERS_REFRESH_SECONDS = 30;
+    private static final int CONFIG_CHECK_SECONDS = 5;
+
+    private static volatile ByteBuffer packet;
+
+    private static final ConcurrentHashMap<InetAddress, TokenBucket> buckets = new ConcurrentHashMap<>();
+    // Spoofed sources rarely repeat, so the total is capped as well
+    private static final TokenBucket global = new TokenBucket(Config.DISCOVERY_GLOBAL_PER_SECOND,
+            Config.DISCOVERY_GLOBAL_PER_SECOND);
+
+    public static final AtomicLong served = new AtomicLong();
+    public static final AtomicLong dropped = new AtomicLong();
+
+    // Game thread only
+    private static int hubPlayers = -1;
+    private static String lastName, lastDescription;
+    private static int lastLimit;
+
+    public static void init() {
+        Events.on(PlayEvent.class, event -> Core.app.post(DiscoveryResponder::rebuild));
+        Events.on(WaveEvent.class, event -> Core.app.post(DiscoveryResponder::rebuild));
+        Events.on(PlayerJoin.class, event -> Core.app.post(DiscoveryResponder::rebuild));
+        Events.on(PlayerLeave.class, event -> Core.app.post(DiscoveryResponder::rebuild));
+
+        Timer.schedule(DiscoveryResponder::refreshPlayers, 0, PLAYERS_REFRESH_SECONDS);
+        Timer.schedule(DiscoveryResponder::checkConfig, CONFIG_CHECK_SECONDS, CONFIG_CHECK_SECONDS);
+        Timer.schedule(DiscoveryResponder::sweep, 10, 10);
+
+        Core.app.post(DiscoveryResponder::rebuild);
+    }
+
+    // Null when the ping should be ignored
+    public static ByteBuffer get(InetAddress address) {
+        var current = packet;
+
+        if (current == null) {
+            return null;
+        }
+
+        // Checked first so spoofed sources can not grow the bucket map faster than this
+        if (!global.tryAcquire()) {
+            dropped.incrementAndGet();
+            return null;
+        }
+
+        var bucket = buckets.computeIfAbsent(address,
+                k -> new TokenBucket(Config.DISCOVERY_BURST, Config.DISCOVERY_REFILL_PER_SECOND));
+
+        if (!bucket.tryAcquire()) {
+            dropped.incrementAndGet();
+            return null;
+        }
+
+        served.incrementAndGet();
+
+        return current.duplicate();
+    }
+
+    private static void refreshPlayers() {
+        MindustryToolPlugin.apiGateway.executeAsync("PLAYERS", "", Integer.class)//
+                .thenAcceptAsync(players -> {
+                    if (players != null && players != hubPlayers) {
+                        hubPlayers = players;
+                        rebuild();
+                    }
+                }, Config.GAME_THREAD_EXECUTOR)//
+                .exceptionally(error -> {
+                    Log.err(error);
+                    return null;
+                });
+    }
+
+    // Server name, description and player limit change without an event
+    private static void checkConfig() {
+        if (!Administration.Config.serverName.string().equals(lastName)
+                || !Administration.Config.desc.string().equals(lastDescription)
+                || Vars.netServer.admins.getPlayerLimit() != lastLimit) {
+            rebuild();
+        }
+    }
+
+    private static void sweep() {
+        buckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    public static void rebuild() {
+        if (Vars.state.map == null) {
+            return;
+        }
+
+        lastName = Administration.Config.serverName.string();
+        lastDescription = Administration.Config.desc.string();
+        lastLimit = Vars.netServer.admins.getPlayerLimit();
+
+        int players = hubPlayers >= 0 ? hubPlayers : Groups.player.size();
+
+        ByteBuffer buffer = ByteBuffer.allocate(PACKET_SIZE);
+
+        writeString(buffer, lastName, 100);
+        writeString(buffer, Vars.state.map.name(), 64);
+
+        buffer.putInt(Core.settings.getInt("totalPlayers", players));
+        buffer.putInt(Vars.state.wave);
+        buffer.putInt(Version.build);
+        writeString(buffer, Version.type);
+
+        buffer.put((byte) Vars.state.rules.mode().ordinal());
+        buffer.putInt(lastLimit);
+
+        writeString(buffer, lastDescription, 100);
+        if (Vars.state.rules.modeName != null) {
+            writeString(buffer, Vars.state.rules.modeName, 50);
+        }
+
+        buffer.flip();
+        packet = buffer.asReadOnlyBuffer();
+    }
+
+    private static void writeString(ByteBuffer buffer, String string) {
+        writeString(buffer, string, 32);
+    }
+
+    private static void writeString(ByteBuffer buffer, String string, int maxlen) {
+        byte[] bytes = string.getBytes(Vars.charset);
+        if (bytes.length > maxlen) {
+            bytes = Arrays.copyOfRange(bytes, 0, maxlen);
+        }
+
+        buffer.put((byte) bytes.length);
+        buffer.put(bytes);
+    }
+}
@@ -0,0 +1,155 @@
+package mindustrytool.utils;
+
+import arc.Events;
+import arc.graphics.Color;
+import arc.struct.IntMap;
+import arc.struct.Queue;
+import arc.struct.Seq;
+import mindustry.entities.Effect;
+import mindustry.game.EventType.PlayerLeave;
+import mindustry.game.EventType.Trigger;
+import mindustry.gen.Call;
+import mindustry.gen.Groups;
+import mindustry.gen.Player;
+import mindustry.net.NetConnection;
+import mindustrytool.Config;
+
+// Cosmetic player effects are queued here and sent once per tick, only to
+// connections whose camera can see them, within a per tick packet budget.
+// Slots the budget did not reach stay queued in order, so every player gets a
+// turn. Game thread only.
+public class EffectScheduler {
+
+    // Used until the client reported its view in a snapshot
+    private static final float DEFAULT_VIEW_SIZE = 60 * 8;
+    private static final float VIEW_MARGIN = 4 * 8;
+
+    private static final IntMap<PendingEffect> slots = new IntMap<>();
+    private static final Queue<PendingEffect> queued = new Queue<>(32);
+
+    private static long tick;
+    private static long dropped;
+
+    private static class PendingEffect {
+        Player player;
+        Effect effect;
+        float x, y, rotation;
+        Color color;
+        boolean queued;
+        // Viewers that could see the effect when sending started, so joins and
+        // leaves between ticks do not shift the rest of a half sent slot
+        final Seq<Player> viewers = new Seq<>(false, 16);
+        boolean started;
+        int nextViewer;
+        long lastSentTick = Long.MIN_VALUE / 2;
+    }
+
+    public static void init() {
+        Events.run(Trigger.update, EffectScheduler::flush);
+        Events.on(PlayerLeave.class, event -> {
+            var slot = slots.remove(event.player.id);
+
+            if (slot != null && slot.queued) {
+                queued.removeValue(slot, true);
+            }
+        });
+    }
+
+    // Coalesced per player, a newer effect in the same window replaces the older one
+    public static void queue(Player player, Effect effect, float x, float y, float rotation, Color color) {
+        var slot = slots.get(player.id);
+
+        if (slot == null) {
+            slot = new PendingEffect();
+            slot.player = player;
+            slots.put(player.id, slot);
+        }
+
+        if (tick - slot.lastSentTick < Config.EFFECT_MIN_INTERVAL_TICKS) {
+            return;
+        }
+
+        if (slot.queued) {
+            dropped++;
+
+            // Some viewers already got the older effect, finish that one first
+            if (slot.started) {
+                return;
+            }
+        }
+
+        slot.effect = effect;
+        slot.x = x;
+        slot.y = y;
+        slot.rotation = rotation;
+        slot.color = color;
+
+        if (!slot.queued) {
+            slot.queued = true;
+            queued.addLast(slot);
+        }
+    }
+
+    public static long getDropped() {
+        return dropped;
+    }
+
+    private static void flush() {
+        tick++;
+
+        int budget = Config.EFFECT_PACKET_BUDGET_PER_TICK;
+
+        while (!queued.isEmpty() && budget > 0) {
+            var slot = queued.first();
+
+            if (!slot.started) {
+                for (var viewer : Groups.player) {
+                    if (viewer.con != null && inView(viewer, slot.x, slot.y)) {
+                        slot.viewers.add(viewer);
+                    }
+                }
+
+                slot.started = true;
+            }
+
+            for (; slot.nextViewer < slot.viewers.size && budget > 0; slot.nextViewer++) {
+                var viewer = slot.viewers.get(slot.nextViewer);
+
+                // Left since the slot started
+                if (viewer.con == null || !viewer.con.isConnected()) {
+                    continue;
+                }
+
+                Call.effect(viewer.con, slot.effect, slot.x, slot.y, slot.rotation, slot.color);
+                budget--;
+            }
+
+            // Out of budget mid slot, it stays first for the next tick
+            if (slot.nextViewer < slot.viewers.size) {
+                break;
+            }
+
+            queued.removeFirst();
+
+            slot.queued = false;
+            slot.started = false;
+            slot.nextViewer = 0;
+            slot.viewers.clear();
+            slot.effect = null;
+            slot.color = null;
+            slot.lastSentTick = tick;
+        }
+    }
+
+    private static boolean inView(Player viewer, float x, float y) {
+        NetConnection con = viewer.con;
+
+        if (con.viewWidth <= 0 || con.viewHeight <= 0) {
+            return Math.abs(x - viewer.x) <= DEFAULT_VIEW_SIZE / 2 + VIEW_MARGIN
+                    && Math.abs(y - viewer.y) <= DEFAULT_VIEW_SIZE / 2 + VIEW_MARGIN;
+        }
+
+        return Math.abs(x - con.viewX) <= con.viewWidth / 2 + VIEW_MARGIN
+                && Math.abs(y - con.viewY) <= con.viewHeight / 2 + VIEW_MARGIN;
+    }
+}
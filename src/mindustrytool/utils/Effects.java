@@ -4,7 +4,6 @@ import arc.Core;
 import arc.struct.Seq;
 import arc.util.Timer;
 import mindustry.entities.Effect;
-import mindustry.gen.Call;
 
 public class Effects {
     private static Seq<Effects> effects = new Seq<>();
@@ -97,7 +96,7 @@ public class Effects {
 
         Timer.schedule(() -> {
             Session.each(d -> d.hasEffect,
-                    d -> Call.effect(d.effect.effect, d.player.x, d.player.y, 10, arc.graphics.Color.green));
+                    d -> EffectScheduler.queue(d.player, d.effect.effect, d.player.x, d.player.y, 10, arc.graphics.Color.green));
         }, 0, 0.064f);
     }
 
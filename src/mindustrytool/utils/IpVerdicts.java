@@ -0,0 +1,141 @@
+package mindustrytool.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import arc.util.Log;
+import mindustrytool.Config;
+import mindustrytool.MindustryToolPlugin;
+import mindustrytool.messages.response.IpCheckMessageResponse;
+
+// Per address ban verdicts from a chain of checkers. Results are cached, and
+// concurrent checks for the same address share one run of the chain.
+public class IpVerdicts {
+
+    private static final int CHECK_TIMEOUT_SECONDS = 5;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        var thread = new Thread(runnable, "IpVerdict");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final TtlCache<String, Verdict> cache = new TtlCache<>(Config.IP_VERDICT_TTL_MINUTES, TimeUnit.MINUTES,
+            Config.IP_VERDICT_CACHE_SIZE);
+    private static final ConcurrentHashMap<String, CompletableFuture<Verdict>> inflight = new ConcurrentHashMap<>();
+    private static final CopyOnWriteArrayList<Checker> checkers = new CopyOnWriteArrayList<>();
+
+    public static final AtomicLong cacheHits = new AtomicLong();
+    public static final AtomicLong checks = new AtomicLong();
+    public static final AtomicLong banned = new AtomicLong();
+
+    public static class Verdict {
+        public static final Verdict ALLOW = new Verdict(false, null, true);
+        // A checker failed, let the player in but look again soon
+        public static final Verdict UNKNOWN = new Verdict(false, null, false);
+
+        public final boolean banned;
+        public final String reason;
+        public final boolean certain;
+
+        public Verdict(boolean banned, String reason, boolean certain) {
+            this.banned = banned;
+            this.reason = reason;
+            this.certain = certain;
+        }
+
+        public static Verdict ban(String reason) {
+            return new Verdict(true, reason, true);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Checker {
+        CompletableFuture<Verdict> check(String ip);
+    }
+
+    public static void init() {
+        addChecker(ip -> CompletableFuture.supplyAsync(() -> VPNUtils.isVpnIp(ip) ? Verdict.ban("vpn subnet") : Verdict.ALLOW, executor));
+
+        addChecker(ip -> MindustryToolPlugin.apiGateway.executeAsync("IP_CHECK", ip, IpCheckMessageResponse.class, CHECK_TIMEOUT_SECONDS)//
+                .thenApply(response -> response.isBanned() ? Verdict.ban(response.getReason()) : Verdict.ALLOW));
+    }
+
+    public static void addChecker(Checker checker) {
+        checkers.add(checker);
+    }
+
+    public static void invalidate(String ip) {
+        cache.invalidate(ip);
+    }
+
+    public static CompletableFuture<Verdict> check(String ip) {
+        var cached = cache.get(ip);
+
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        var future = new CompletableFuture<Verdict>();
+        var existing = inflight.putIfAbsent(ip, future);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        checks.incrementAndGet();
+
+        run(ip, 0).whenComplete((verdict, error) -> {
+            if (error != null) {
+                Log.err(error);
+                verdict = Verdict.UNKNOWN;
+            }
+
+            if (verdict.banned) {
+                banned.incrementAndGet();
+            }
+
+            if (verdict.certain) {
+                cache.put(ip, verdict);
+            } else {
+                cache.put(ip, verdict, Config.IP_VERDICT_UNCERTAIN_TTL_SECONDS, TimeUnit.SECONDS);
+            }
+
+            inflight.remove(ip);
+            future.complete(verdict);
+        });
+
+        return future;
+    }
+
+    // The first ban wins, an allow is only certain when every checker answered
+    private static CompletableFuture<Verdict> run(String ip, int index) {
+        if (index >= checkers.size()) {
+            return CompletableFuture.completedFuture(Verdict.ALLOW);
+        }
+
+        CompletableFuture<Verdict> current;
+
+        try {
+            current = checkers.get(index).check(ip);
+        } catch (Exception e) {
+            current = CompletableFuture.failedFuture(e);
+        }
+
+        return current//
+                .handle((verdict, error) -> error != null || verdict == null ? Verdict.UNKNOWN : verdict)//
+                .thenCompose(verdict -> {
+                    if (verdict.banned) {
+                        return CompletableFuture.completedFuture(verdict);
+                    }
+
+                    return run(ip, index + 1).thenApply(next -> next.banned || verdict.certain ? next : Verdict.UNKNOWN);
+                });
+    }
+}
@@ -2,13 +2,19 @@ package mindustrytool.utils;
 
 import java.io.IOException;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
+import arc.func.Func;
 import mindustrytool.error.NotJsonException;
+import mindustrytool.messages.MessageDataException;
 import mindustrytool.messages.NotMessageException;
+import mindustrytool.type.ServerExchange;
 
 public class JsonUtils {
     public static final ObjectMapper objectMapper = new ObjectMapper()
@@ -16,6 +22,11 @@ public class JsonUtils {
             .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true)
             .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
 
+    public static final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true)
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
     public static String toJsonString(Object data) {
         try {
             return objectMapper.writeValueAsString(data);
@@ -40,18 +51,101 @@ public class JsonUtils {
         }
     }
 
-    public static JsonNode readMessage(String data) {
+    public static ServerExchange readMessage(String data, Func<ServerExchange, Class<?>> dataClass) {
+        JsonParser parser;
+
         try {
-            var node = objectMapper.readTree(data);
+            parser = objectMapper.createParser(data);
+        } catch (Exception e) {
+            throw new NotMessageException();
+        }
+
+        return readMessage(parser, dataClass);
+    }
+
+    public static ServerExchange readBinaryMessage(byte[] data, int offset, int length, Func<ServerExchange, Class<?>> dataClass) {
+        JsonParser parser;
+
+        try {
+            parser = cborMapper.createParser(data, offset, length);
+        } catch (Exception e) {
+            throw new NotMessageException();
+        }
+
+        return readMessage(parser, dataClass);
+    }
+
+    public static ServerExchange readMessage(JsonParser parser, Func<ServerExchange, Class<?>> dataClass) {
+        var message = new ServerExchange().setType(null);
 
-            if (!node.hasNonNull("id") || !node.hasNonNull("type") || !node.hasNonNull("method")) {
+        JsonNode rawData = null;
+
+        try (parser) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
                 throw new NotMessageException();
             }
 
-            return node;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "id" -> message.setId(parser.getValueAsString());
+                    case "type" -> message.setType(parser.getValueAsString());
+                    case "method" -> message.setMethod(parser.getValueAsString());
+                    case "data" -> {
+                        // Bind straight from the stream when the envelope is already known,
+                        // otherwise keep the tree until id, type and method have been read
+                        if (isEnvelope(message)) {
+                            try {
+                                message.setData(readData(parser, dataClass.get(message)));
+                            } catch (NotJsonException e) {
+                                throw new MessageDataException(message, e.getCause());
+                            }
+                        } else {
+                            rawData = objectMapper.readTree(parser);
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (NotJsonException e) {
+            throw e;
         } catch (Exception e) {
             throw new NotMessageException();
         }
 
+        if (!isEnvelope(message)) {
+            throw new NotMessageException();
+        }
+
+        if (rawData != null) {
+            var clazz = dataClass.get(message);
+
+            try {
+                message.setData(clazz == null ? null : objectMapper.treeToValue(rawData, clazz));
+            } catch (Exception e) {
+                throw new MessageDataException(message, e);
+            }
+        }
+
+        return message;
+    }
+
+    private static boolean isEnvelope(ServerExchange message) {
+        return message.getId() != null && message.getType() != null && message.getMethod() != null;
+    }
+
+    private static Object readData(JsonParser parser, Class<?> clazz) {
+        try {
+            if (clazz == null) {
+                parser.skipChildren();
+                return null;
+            }
+
+            return objectMapper.readValue(parser, clazz);
+        } catch (Exception e) {
+            throw new NotJsonException("Can not parse data: " + e.getMessage(), e);
+        }
     }
 }
@@ -0,0 +1,497 @@
+package mindustrytool.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import arc.Core;
+import arc.files.Fi;
+import arc.struct.StringMap;
+import arc.util.Log;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import mindustry.Vars;
+import mindustry.io.MapIO;
+import mindustry.maps.Map;
+
+// Custom maps by stable id. Files are only parsed when their size or
+// modification time changed, a watch service on the map directory applies
+// changes one file at a time, and the parsed headers are kept in an index file
+// so a restart does not parse unchanged maps again. Changes are mirrored into
+// Vars.maps on the game thread so map rotation sees them too.
+public class MapCatalog {
+
+    private static final long DEBOUNCE_MILLIS = 1000;
+
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "MapCatalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Sorted by id, replaced whole on every change
+    private static volatile Entry[] entries = new Entry[0];
+
+    // Catalog thread only
+    private static final HashMap<String, Entry> byFile = new HashMap<>();
+    private static final HashMap<String, Integer> ids = new HashMap<>();
+    private static int nextId;
+
+    private static final HashSet<String> pending = new HashSet<>();
+    private static boolean pendingRescan;
+    private static boolean flushScheduled;
+
+    public static class Entry {
+        public final int id;
+        public final String fileName;
+        public final long size;
+        public final long modified;
+        public final String hash;
+        public final Map map;
+
+        Entry(int id, String fileName, long size, long modified, String hash, Map map) {
+            this.id = id;
+            this.fileName = fileName;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+            this.map = map;
+        }
+
+        public String name() {
+            return map.name();
+        }
+
+        public String author() {
+            return map.author();
+        }
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class IndexFile {
+        int nextId;
+        List<IndexEntry> maps = new ArrayList<>();
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class IndexEntry {
+        int id;
+        String file;
+        long size;
+        long modified;
+        String hash;
+        int width;
+        int height;
+        java.util.Map<String, String> tags;
+    }
+
+    public static Fi getIndexFile() {
+        return Vars.dataDirectory.child("map-index.json");
+    }
+
+    // Only waits for the index, the files are checked in the background
+    public static void init() {
+        var start = System.currentTimeMillis();
+
+        try {
+            executor.submit(() -> {
+                loadIndex();
+                entries = sorted();
+            }).get();
+        } catch (Exception e) {
+            Log.err("Can not load map index", e);
+        }
+
+        Log.info("Map catalog loaded @ maps from the index in @ms", entries.length, System.currentTimeMillis() - start);
+
+        executor.execute(() -> {
+            try {
+                rescan();
+                publish();
+
+                Log.info("Map catalog ready with @ maps in @ms", entries.length, System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                Log.err("Can not build map catalog", e);
+            }
+        });
+
+        var watcher = new Thread(MapCatalog::watch, "MapCatalogWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public static Entry[] all() {
+        return entries;
+    }
+
+    public static int size() {
+        return entries.length;
+    }
+
+    public static Entry get(int id) {
+        var current = entries;
+        int low = 0, high = current.length - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = current[middle].id;
+
+            if (value < id) {
+                low = middle + 1;
+            } else if (value > id) {
+                high = middle - 1;
+            } else {
+                return current[middle];
+            }
+        }
+
+        return null;
+    }
+
+    public static Entry getByFile(String fileName) {
+        for (var entry : entries) {
+            if (entry.fileName.equals(fileName)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    // Re-checks every file but only parses the changed ones
+    public static void reload() {
+        executor.execute(() -> {
+            try {
+                if (rescan()) {
+                    publish();
+                }
+            } catch (Exception e) {
+                Log.err(e);
+            }
+        });
+    }
+
+    public static void refresh(String fileName) {
+        synchronized (pending) {
+            pending.add(fileName);
+            scheduleFlush();
+        }
+    }
+
+    private static void watch() {
+        Path directory = Vars.customMapDirectory.file().toPath();
+
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+
+            while (true) {
+                var key = service.take();
+
+                synchronized (pending) {
+                    for (var event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            pendingRescan = true;
+                        } else if (isMapFile(event.context().toString())) {
+                            pending.add(event.context().toString());
+                        }
+                    }
+
+                    scheduleFlush();
+                }
+
+                if (!key.reset()) {
+                    Log.warn("Map directory is no longer watched");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Log.err("Can not watch map directory", e);
+        }
+    }
+
+    // Files arrive in several writes, wait for them to settle
+    private static void scheduleFlush() {
+        if (flushScheduled || (pending.isEmpty() && !pendingRescan)) {
+            return;
+        }
+
+        flushScheduled = true;
+        executor.schedule(MapCatalog::flush, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static void flush() {
+        String[] files;
+        boolean rescan;
+
+        synchronized (pending) {
+            files = pending.toArray(new String[0]);
+            rescan = pendingRescan;
+
+            pending.clear();
+            pendingRescan = false;
+            flushScheduled = false;
+        }
+
+        try {
+            boolean changed = rescan && rescan();
+
+            for (var file : files) {
+                changed |= update(Vars.customMapDirectory.child(file));
+            }
+
+            if (changed) {
+                publish();
+            }
+        } catch (Exception e) {
+            Log.err(e);
+        }
+    }
+
+    // Returns true when any entry changed
+    private static boolean rescan() {
+        var seen = new HashSet<String>();
+        boolean changed = false;
+
+        for (var file : Vars.customMapDirectory.list()) {
+            if (isMapFile(file.name())) {
+                seen.add(file.name());
+                changed |= update(file);
+            }
+        }
+
+        for (var fileName : new ArrayList<>(byFile.keySet())) {
+            if (!seen.contains(fileName)) {
+                changed |= update(Vars.customMapDirectory.child(fileName));
+            }
+        }
+
+        return changed;
+    }
+
+    // Returns true when the entry for this file changed
+    private static boolean update(Fi file) {
+        var fileName = file.name();
+        var previous = byFile.get(fileName);
+
+        if (!file.exists()) {
+            if (previous == null) {
+                return false;
+            }
+
+            byFile.remove(fileName);
+            mirror(previous, null);
+            Log.info("Map @ removed", fileName);
+            return true;
+        }
+
+        long size = file.length();
+        long modified = file.lastModified();
+
+        if (previous != null && previous.size == size && previous.modified == modified) {
+            return false;
+        }
+
+        byte[] data;
+
+        try {
+            data = file.readBytes();
+        } catch (Exception e) {
+            Log.err("Can not read map @: @", fileName, e.getMessage());
+            return drop(previous);
+        }
+
+        var hash = hash(data);
+
+        // Touched but not changed
+        if (previous != null && hash.equals(previous.hash)) {
+            byFile.put(fileName, new Entry(previous.id, fileName, size, modified, hash, previous.map));
+            return true;
+        }
+
+        Map map;
+
+        try {
+            // Parsed from the bytes already read, the map itself points at the real file
+            var parsed = MapIO.createMap(new Fi(file.file()) {
+                @Override
+                public InputStream read() {
+                    return new ByteArrayInputStream(data);
+                }
+
+                @Override
+                public InputStream read(int bufferSize) {
+                    return new ByteArrayInputStream(data);
+                }
+            }, true);
+
+            map = new Map(file, parsed.width, parsed.height, parsed.tags, parsed.custom, parsed.version, parsed.build);
+        } catch (Exception e) {
+            Log.err("Can not read map @: @", fileName, e.getMessage());
+            return drop(previous);
+        }
+
+        var entry = new Entry(idOf(fileName), fileName, size, modified, hash, map);
+
+        byFile.put(fileName, entry);
+        mirror(previous, entry);
+        Log.info("Map @ @", fileName, previous == null ? "added" : "updated");
+
+        return true;
+    }
+
+    // A broken file must not stay playable under its old entry, the id stays reserved
+    private static boolean drop(Entry previous) {
+        if (previous == null) {
+            return false;
+        }
+
+        byFile.remove(previous.fileName);
+        mirror(previous, null);
+        Log.info("Map @ removed until it can be read again", previous.fileName);
+
+        return true;
+    }
+
+    private static int idOf(String fileName) {
+        return ids.computeIfAbsent(fileName, k -> nextId++);
+    }
+
+    private static void mirror(Entry previous, Entry next) {
+        Core.app.post(() -> {
+            var maps = Vars.maps.all();
+
+            if (previous != null) {
+                maps.remove(previous.map, true);
+            }
+
+            // Maps loaded by the server itself at startup are other instances
+            if (next != null) {
+                maps.removeAll(map -> map.custom && map.file != null && map.file.name().equals(next.fileName));
+                maps.add(next.map);
+            }
+        });
+    }
+
+    private static void publish() {
+        var next = sorted();
+
+        entries = next;
+
+        saveIndex(next);
+    }
+
+    private static Entry[] sorted() {
+        var next = byFile.values().toArray(new Entry[0]);
+        Arrays.sort(next, Comparator.comparingInt(entry -> entry.id));
+
+        return next;
+    }
+
+    private static void loadIndex() {
+        var file = getIndexFile();
+
+        if (!file.exists()) {
+            return;
+        }
+
+        IndexFile index;
+
+        try {
+            index = JsonUtils.objectMapper.readValue(file.file(), IndexFile.class);
+        } catch (IOException e) {
+            Log.err("Can not read map index, parsing every map", e);
+            return;
+        }
+
+        nextId = index.getNextId();
+
+        for (var item : index.getMaps()) {
+            ids.put(item.getFile(), item.getId());
+            nextId = Math.max(nextId, item.getId() + 1);
+
+            var mapFile = Vars.customMapDirectory.child(item.getFile());
+
+            if (item.getTags() == null || !mapFile.exists()) {
+                continue;
+            }
+
+            var tags = new StringMap();
+            item.getTags().forEach(tags::put);
+
+            var map = new Map(mapFile, item.getWidth(), item.getHeight(), tags, true);
+
+            byFile.put(item.getFile(), new Entry(item.getId(), item.getFile(), item.getSize(), item.getModified(), item.getHash(), map));
+        }
+
+        // Mirror the entries that survive the startup rescan
+        for (var entry : byFile.values()) {
+            mirror(null, entry);
+        }
+    }
+
+    private static void saveIndex(Entry[] current) {
+        var index = new IndexFile().setNextId(nextId);
+
+        // Keep ids of removed files, so a map that comes back gets its old id
+        for (var id : ids.entrySet()) {
+            var entry = byFile.get(id.getKey());
+            var item = new IndexEntry().setId(id.getValue()).setFile(id.getKey());
+
+            if (entry != null) {
+                var tags = new LinkedHashMap<String, String>();
+                entry.map.tags.each(tags::put);
+
+                item.setSize(entry.size)//
+                        .setModified(entry.modified)//
+                        .setHash(entry.hash)//
+                        .setWidth(entry.map.width)//
+                        .setHeight(entry.map.height)//
+                        .setTags(tags);
+            }
+
+            index.getMaps().add(item);
+        }
+
+        try {
+            var file = getIndexFile();
+            var temp = file.sibling(file.name() + ".tmp");
+
+            JsonUtils.objectMapper.writeValue(temp.file(), index);
+            temp.moveTo(file);
+        } catch (IOException e) {
+            Log.err("Can not write map index", e);
+        }
+    }
+
+    private static String hash(byte[] data) {
+        var crc = new CRC32();
+        crc.update(data);
+
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static boolean isMapFile(String fileName) {
+        return fileName.endsWith("." + Vars.mapExtension);
+    }
+}
@@ -0,0 +1,108 @@
+package mindustrytool.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import arc.files.Fi;
+import arc.util.Log;
+import mindustry.maps.Map;
+
+// Reads and decompresses the next map while the game over countdown runs.
+// World.loadMap still does the loading, but from a copy of the map whose file
+// reads come from memory, stored without compression so inflating it again
+// on the game thread is a plain copy.
+public class MapPreloader {
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "MapPreloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Game thread only
+    private static Map pendingMap;
+    private static CompletableFuture<Map> pending;
+
+    public static void preload(Map map) {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+
+        pendingMap = map;
+        pending = CompletableFuture.supplyAsync(() -> prepare(map), executor);
+    }
+
+    // The preloaded copy when it is ready, otherwise the map itself
+    public static Map take(Map map) {
+        var future = pending;
+        var preloaded = pendingMap == map && future != null ? future.getNow(null) : null;
+
+        if (future != null) {
+            future.cancel(false);
+        }
+
+        pending = null;
+        pendingMap = null;
+
+        if (preloaded == null) {
+            Log.info("Map @ was not preloaded, loading it from disk", map.plainName());
+            return map;
+        }
+
+        return preloaded;
+    }
+
+    private static Map prepare(Map map) {
+        try {
+            long start = System.nanoTime();
+
+            byte[] compressed = map.file.readBytes();
+            long read = System.nanoTime();
+
+            var raw = new ByteArrayOutputStream(compressed.length * 4);
+
+            try (var input = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+                input.transferTo(raw);
+            }
+
+            long inflated = System.nanoTime();
+
+            var stored = new ByteArrayOutputStream(raw.size() + raw.size() / 1000 + 64);
+
+            try (var output = new DeflaterOutputStream(stored, new Deflater(Deflater.NO_COMPRESSION))) {
+                raw.writeTo(output);
+            }
+
+            byte[] data = stored.toByteArray();
+            long end = System.nanoTime();
+
+            Log.info("Preloaded map @: read @ms (@ KB), inflate @ms (@ KB), repack @ms", map.plainName(),
+                    (read - start) / 1_000_000, compressed.length / 1024, (inflated - read) / 1_000_000, raw.size() / 1024,
+                    (end - inflated) / 1_000_000);
+
+            Fi file = new Fi(map.file.file()) {
+                @Override
+                public InputStream read() {
+                    return new ByteArrayInputStream(data);
+                }
+
+                @Override
+                public InputStream read(int bufferSize) {
+                    return new ByteArrayInputStream(data);
+                }
+            };
+
+            return new Map(file, map.width, map.height, map.tags, map.custom, map.version, map.build);
+        } catch (Exception e) {
+            Log.err("Can not preload map " + map.plainName(), e);
+            return null;
+        }
+    }
+}
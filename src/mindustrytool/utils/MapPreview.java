@@ -0,0 +1,172 @@
+package mindustrytool.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import arc.Events;
+import arc.graphics.Pixmap;
+import arc.graphics.PixmapIO.PngWriter;
+import mindustry.Vars;
+import mindustry.game.EventType.BlockDestroyEvent;
+import mindustry.game.EventType.BuildTeamChangeEvent;
+import mindustry.game.EventType.TileChangeEvent;
+import mindustry.game.EventType.TilePreChangeEvent;
+import mindustry.game.EventType.WorldLoadEvent;
+import mindustry.io.MapIO;
+import mindustry.world.Tile;
+import mindustrytool.Config;
+
+public class MapPreview {
+
+    private static final int CHUNK_SIZE = 32;
+    private static final int RENDER_TIMEOUT_SECONDS = 5;
+
+    // Game thread only
+    private static Pixmap pixmap;
+    private static boolean[] dirtyChunks;
+    private static int chunksX;
+    private static boolean dirty;
+
+    // Bumped on the game thread whenever a pixel may have changed
+    private static volatile int version;
+
+    // Guarded by MapPreview.class
+    private static byte[] png = {};
+    private static int pngVersion = -1;
+    private static PngWriter writer;
+
+    public static void init() {
+        Events.on(WorldLoadEvent.class, event -> reset());
+
+        // Pre change still has the old block, so a removed multiblock marks its whole footprint
+        Events.on(TilePreChangeEvent.class, event -> markDirty(event.tile));
+        Events.on(TileChangeEvent.class, event -> markDirty(event.tile));
+        Events.on(BlockDestroyEvent.class, event -> markDirty(event.tile));
+        Events.on(BuildTeamChangeEvent.class, event -> markDirty(event.build.tile));
+    }
+
+    // Called from gateway lanes, returns the cached PNG when nothing changed since the last call
+    public static synchronized byte[] getPng() {
+        int current = version;
+
+        if (current == pngVersion) {
+            return png;
+        }
+
+        Pixmap copy;
+
+        try {
+            copy = CompletableFuture.supplyAsync(MapPreview::render, Config.GAME_THREAD_EXECUTOR)//
+                    .get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new RuntimeException("Can not render map preview: " + e.getMessage(), e);
+        }
+
+        if (copy == null) {
+            png = new byte[0];
+            pngVersion = current;
+            return png;
+        }
+
+        try {
+            png = encode(copy);
+            pngVersion = current;
+        } finally {
+            copy.dispose();
+        }
+
+        return png;
+    }
+
+    private static byte[] encode(Pixmap pix) {
+        if (writer == null) {
+            writer = new PngWriter((int) (pix.width * pix.height * 1.5f));
+            writer.setFlipY(false);
+        }
+
+        var output = new ByteArrayOutputStream(pix.width * pix.height);
+
+        try {
+            writer.write(output, pix);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not encode map preview: " + e.getMessage(), e);
+        }
+
+        return output.toByteArray();
+    }
+
+    private static void reset() {
+        var tiles = Vars.world.tiles;
+
+        if (pixmap != null) {
+            pixmap.dispose();
+        }
+
+        pixmap = new Pixmap(tiles.width, tiles.height);
+        chunksX = (tiles.width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        dirtyChunks = new boolean[chunksX * ((tiles.height + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+
+        Arrays.fill(dirtyChunks, true);
+        dirty = true;
+        version++;
+    }
+
+    private static void markDirty(Tile tile) {
+        if (pixmap == null || tile == null) {
+            return;
+        }
+
+        var block = tile.block();
+        int minX = Math.max(tile.x + block.sizeOffset, 0);
+        int minY = Math.max(tile.y + block.sizeOffset, 0);
+        int maxX = Math.min(minX + block.size - 1, pixmap.width - 1);
+        int maxY = Math.min(minY + block.size - 1, pixmap.height - 1);
+
+        for (int cy = minY / CHUNK_SIZE; cy <= maxY / CHUNK_SIZE; cy++) {
+            for (int cx = minX / CHUNK_SIZE; cx <= maxX / CHUNK_SIZE; cx++) {
+                dirtyChunks[cy * chunksX + cx] = true;
+            }
+        }
+
+        dirty = true;
+        version++;
+    }
+
+    // Repaints dirty chunks and hands back a copy, so encoding can run off the game thread
+    private static Pixmap render() {
+        if (pixmap == null || Vars.state.map == null) {
+            return null;
+        }
+
+        if (dirty) {
+            for (int i = 0; i < dirtyChunks.length; i++) {
+                if (dirtyChunks[i]) {
+                    paintChunk(i % chunksX, i / chunksX);
+                    dirtyChunks[i] = false;
+                }
+            }
+
+            dirty = false;
+        }
+
+        return pixmap.copy();
+    }
+
+    private static void paintChunk(int cx, int cy) {
+        var tiles = Vars.world.tiles;
+
+        int maxX = Math.min((cx + 1) * CHUNK_SIZE, pixmap.width);
+        int maxY = Math.min((cy + 1) * CHUNK_SIZE, pixmap.height);
+
+        for (int x = cx * CHUNK_SIZE; x < maxX; x++) {
+            for (int y = cy * CHUNK_SIZE; y < maxY; y++) {
+                var tile = tiles.getn(x, y);
+
+                pixmap.set(x, pixmap.height - 1 - y, MapIO.colorFor(tile.block(), tile.floor(), tile.overlay(), tile.team()));
+            }
+        }
+    }
+}
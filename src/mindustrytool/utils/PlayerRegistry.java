@@ -0,0 +1,197 @@
+package mindustrytool.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import arc.struct.IntSet;
+import mindustry.gen.Player;
+import mindustrytool.Config;
+import mindustrytool.handlers.EventHandler.PlayerMetaData;
+import mindustrytool.utils.HudUtils.MenuData;
+
+// All per player state lives in one slot, so a leave drops every feature's
+// state at once. Mutations come from the game thread and update the indexes in
+// place, slots are kept in a dense array with swap remove. Lookups from any
+// thread read the concurrent indexes, all() hands out a copy that is only made
+// again after a change.
+public class PlayerRegistry {
+
+    public static class Slot {
+        public final Player player;
+        public final String uuid;
+        public final Session session;
+
+        // Menu id -> open menu
+        public final ConcurrentHashMap<Integer, MenuData> menus = new ConcurrentHashMap<>();
+        // Map ids this player voted for, game thread only
+        public final IntSet rtvVotes = new IntSet();
+
+        // Chat limits, game thread only
+        public final TokenBucket chatBucket = new TokenBucket(Config.CHAT_BURST, Config.CHAT_REFILL_PER_SECOND);
+        public final int[] recentChats = new int[Config.CHAT_DUPLICATE_WINDOW];
+        public int recentChatIndex;
+        public int chatStrikes;
+
+        public volatile PlayerMetaData meta;
+        public volatile CompletableFuture<?> pendingJoin;
+
+        // Position in the dense array and the name it is indexed by, guarded by the registry lock
+        private int index;
+        private String name;
+
+        private Slot(Player player) {
+            this.player = player;
+            this.uuid = player.uuid();
+            this.session = new Session(player);
+        }
+    }
+
+    private static final ConcurrentHashMap<Integer, Slot> byId = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Slot> byUuid = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Slot> byName = new ConcurrentHashMap<>();
+    // Slots per name, more than one when players share a name, guarded by the registry lock
+    private static final HashMap<String, Integer> nameCounts = new HashMap<>();
+
+    // Guarded by the registry lock
+    private static Slot[] slots = new Slot[16];
+    private static int count;
+
+    // Copy of the live slots, null after a change until all() makes it again
+    private static volatile Slot[] view = new Slot[0];
+
+    public static synchronized Slot add(Player player) {
+        var existing = byId.get(player.id);
+
+        if (existing != null && existing.player == player) {
+            return existing;
+        }
+
+        // Same id but another player object, the old one never left cleanly
+        if (existing != null) {
+            unlink(existing);
+        }
+
+        var slot = new Slot(player);
+
+        if (count == slots.length) {
+            slots = Arrays.copyOf(slots, count * 2);
+        }
+
+        slot.index = count;
+        slots[count++] = slot;
+
+        byId.put(player.id, slot);
+        byUuid.put(slot.uuid, slot);
+        indexName(slot, player.name);
+
+        view = null;
+
+        return slot;
+    }
+
+    public static synchronized Slot remove(Player player) {
+        var slot = byId.get(player.id);
+
+        if (slot == null || slot.player != player) {
+            return null;
+        }
+
+        unlink(slot);
+
+        return slot;
+    }
+
+    // Re-index after player.name changed
+    public static synchronized void rename(Player player) {
+        var slot = byId.get(player.id);
+
+        if (slot == null || slot.player != player || player.name.equals(slot.name)) {
+            return;
+        }
+
+        unindexName(slot);
+        indexName(slot, player.name);
+    }
+
+    private static void unlink(Slot slot) {
+        var last = slots[--count];
+
+        slots[slot.index] = last;
+        last.index = slot.index;
+        slots[count] = null;
+
+        byId.remove(slot.player.id, slot);
+        byUuid.remove(slot.uuid, slot);
+        unindexName(slot);
+
+        view = null;
+    }
+
+    private static void indexName(Slot slot, String name) {
+        slot.name = name;
+        byName.put(name, slot);
+        nameCounts.merge(name, 1, Integer::sum);
+    }
+
+    private static void unindexName(Slot slot) {
+        var name = slot.name;
+        int left = nameCounts.merge(name, -1, Integer::sum);
+
+        if (left <= 0) {
+            nameCounts.remove(name);
+            byName.remove(name, slot);
+            return;
+        }
+
+        // Another player still has this name, only then look for it
+        if (byName.get(name) == slot) {
+            for (int i = 0; i < count; i++) {
+                if (slots[i] != slot && name.equals(slots[i].name)) {
+                    byName.put(name, slots[i]);
+                    break;
+                }
+            }
+        }
+    }
+
+    public static Slot get(Player player) {
+        if (player == null) {
+            return null;
+        }
+
+        var slot = byId.get(player.id);
+
+        return slot != null && slot.player == player ? slot : null;
+    }
+
+    public static Slot getByUuid(String uuid) {
+        return byUuid.get(uuid);
+    }
+
+    public static Slot getByName(String name) {
+        return byName.get(name);
+    }
+
+    // Shared copy, must not be modified
+    public static Slot[] all() {
+        var current = view;
+
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (PlayerRegistry.class) {
+            if (view == null) {
+                view = Arrays.copyOf(slots, count);
+            }
+
+            return view;
+        }
+    }
+
+    public static int size() {
+        return byId.size();
+    }
+}
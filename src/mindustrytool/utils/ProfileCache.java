@@ -0,0 +1,225 @@
+package mindustrytool.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import arc.files.Fi;
+import arc.util.Log;
+import mindustry.Vars;
+import mindustrytool.Config;
+
+// Last known backend profile per uuid, so a returning player gets their name
+// and admin state on join without waiting for PLAYER_JOIN. Kept in memory and
+// persisted as an append-only log that is compacted on startup and when it
+// grows past twice the live entries.
+public class ProfileCache {
+
+    private static final int MAGIC = 0x4D545043;
+    private static final int VERSION = 1;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "ProfileCache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ConcurrentHashMap<String, Profile> profiles = new ConcurrentHashMap<>();
+
+    // Writer thread only
+    private static DataOutputStream output;
+    private static int records;
+
+    public static class Profile {
+        public final String uuid;
+        // Admin is only restored for the same client key the backend approved
+        public final String usid;
+        public final boolean admin;
+        public final long exp;
+        public final String name;
+        public final boolean loggedIn;
+        public final long updatedAt;
+
+        public Profile(String uuid, String usid, boolean admin, long exp, String name, boolean loggedIn, long updatedAt) {
+            this.uuid = uuid;
+            this.usid = usid == null ? "" : usid;
+            this.admin = admin;
+            this.exp = exp;
+            this.name = name == null ? "" : name;
+            this.loggedIn = loggedIn;
+            this.updatedAt = updatedAt;
+        }
+
+        public Profile withExp(long exp) {
+            return new Profile(uuid, usid, admin, exp, name, loggedIn, System.currentTimeMillis());
+        }
+
+        boolean sameAs(Profile other) {
+            return other != null //
+                    && admin == other.admin //
+                    && exp == other.exp //
+                    && loggedIn == other.loggedIn //
+                    && usid.equals(other.usid) //
+                    && name.equals(other.name);
+        }
+    }
+
+    public static Fi getFile() {
+        return Vars.dataDirectory.child("player-profiles.bin");
+    }
+
+    public static void init() {
+        var file = getFile();
+
+        if (file.exists()) {
+            try {
+                load(file);
+            } catch (Exception e) {
+                Log.err("Can not read player profile cache, starting empty", e);
+                profiles.clear();
+            }
+        }
+
+        Log.info("Loaded @ cached player profiles", profiles.size());
+
+        writer.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                Log.err(e);
+            }
+        });
+    }
+
+    public static Profile get(String uuid) {
+        return uuid == null ? null : profiles.get(uuid);
+    }
+
+    public static int size() {
+        return profiles.size();
+    }
+
+    public static void put(Profile profile) {
+        var previous = profiles.put(profile.uuid, profile);
+
+        // Warm rejoins with an unchanged profile cost no disk write
+        if (profile.sameAs(previous)) {
+            return;
+        }
+
+        writer.execute(() -> {
+            try {
+                append(profile);
+
+                if (records > 2 * profiles.size() + 1024) {
+                    compact();
+                }
+            } catch (IOException e) {
+                Log.err(e);
+            }
+        });
+    }
+
+    private static void load(Fi file) throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(file.read()))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                Log.warn("Unknown player profile cache format, ignoring @", file.absolutePath());
+                return;
+            }
+
+            while (true) {
+                Profile profile;
+
+                try {
+                    profile = read(input);
+                } catch (EOFException e) {
+                    // End of file, or a record cut short by a crash
+                    break;
+                }
+
+                profiles.put(profile.uuid, profile);
+            }
+        }
+    }
+
+    private static Profile read(DataInputStream input) throws IOException {
+        var uuid = input.readUTF();
+        var usid = input.readUTF();
+        var admin = input.readBoolean();
+        var exp = input.readLong();
+        var name = input.readUTF();
+        var loggedIn = input.readBoolean();
+        var updatedAt = input.readLong();
+
+        return new Profile(uuid, usid, admin, exp, name, loggedIn, updatedAt);
+    }
+
+    private static void write(DataOutputStream output, Profile profile) throws IOException {
+        output.writeUTF(profile.uuid);
+        output.writeUTF(profile.usid);
+        output.writeBoolean(profile.admin);
+        output.writeLong(profile.exp);
+        output.writeUTF(profile.name);
+        output.writeBoolean(profile.loggedIn);
+        output.writeLong(profile.updatedAt);
+    }
+
+    private static void append(Profile profile) throws IOException {
+        if (output == null) {
+            output = new DataOutputStream(new BufferedOutputStream(getFile().write(true)));
+        }
+
+        write(output, profile);
+        output.flush();
+        records++;
+    }
+
+    // Rewrites the live entries, dropping stale ones, and swaps the file in
+    private static void compact() throws IOException {
+        var cutoff = System.currentTimeMillis() - Duration.ofDays(Config.PROFILE_CACHE_MAX_AGE_DAYS).toMillis();
+
+        profiles.values().removeIf(profile -> profile.updatedAt < cutoff);
+
+        var live = new ArrayList<>(profiles.values());
+
+        if (live.size() > Config.PROFILE_CACHE_MAX_ENTRIES) {
+            live.sort(Comparator.comparingLong((Profile profile) -> profile.updatedAt).reversed());
+
+            for (var profile : live.subList(Config.PROFILE_CACHE_MAX_ENTRIES, live.size())) {
+                profiles.remove(profile.uuid, profile);
+            }
+
+            live = new ArrayList<>(live.subList(0, Config.PROFILE_CACHE_MAX_ENTRIES));
+        }
+
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+
+        var file = getFile();
+        var temp = file.sibling(file.name() + ".tmp");
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(temp.write(false)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            for (var profile : live) {
+                write(out, profile);
+            }
+        }
+
+        temp.moveTo(file);
+        // Puts that raced with this rewrite queued their own append behind it
+        records = live.size();
+    }
+}
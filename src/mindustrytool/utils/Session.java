@@ -4,12 +4,9 @@ import java.util.Locale;
 
 import arc.func.Boolf;
 import arc.func.Cons;
-import arc.struct.ObjectMap;
 import mindustry.gen.Player;
 
 public class Session {
-    private static ObjectMap<Player, Session> data = new ObjectMap<>();
-
     public final Player player;
     public final Locale locale;
 
@@ -26,7 +23,7 @@ public class Session {
             inGodmode = false, //
             isCreator;
 
-    private Session(Player p) {
+    Session(Player p) {
         this.player = p;
         this.lastUnit = p.unit();
         this.locale = Locale.forLanguageTag(p.locale().replace('_', '-'));
@@ -56,55 +53,45 @@ public class Session {
     }
 
     public static Session getByName(String name) {
-        return find(p -> p.player.name.equals(name));
-    }
-
-    public static Session getByID(String id) {
-        return find(p -> p.player.uuid().equals(id));
-    }
+        var slot = PlayerRegistry.getByName(name);
 
-    public static Session get(Player p) {
-        if (p == null)
-            return null;
-        return data.get(p);
+        return slot == null ? null : slot.session;
     }
 
-    public static Session put(Player p) {
-        Session data_ = new Session(p);
-
-        data.put(p, data_);
+    public static Session getByID(String id) {
+        var slot = PlayerRegistry.getByUuid(id);
 
-        return data_;
+        return slot == null ? null : slot.session;
     }
 
-    public static Session remove(Player p) {
-        Session data_ = get(p);
-
-        data.remove(p);
+    public static Session get(Player p) {
+        var slot = PlayerRegistry.get(p);
 
-        return data_;
+        return slot == null ? null : slot.session;
     }
 
     public static boolean contains(Player p) {
-        return data.containsKey(p);
+        return PlayerRegistry.get(p) != null;
     }
 
     public static void each(Cons<Session> item) {
-        data.each((k, v) -> item.get(v));
+        for (var slot : PlayerRegistry.all()) {
+            item.get(slot.session);
+        }
     }
 
     public static void each(Boolf<Session> pred, Cons<Session> item) {
-        data.each((k, v) -> {
-            if (pred.get(v))
-                item.get(v);
-        });
+        for (var slot : PlayerRegistry.all()) {
+            if (pred.get(slot.session))
+                item.get(slot.session);
+        }
     }
 
     public static int count(Boolf<Session> pred) {
         int size = 0;
 
-        for (Session p : data.values()) {
-            if (pred.get(p))
+        for (var slot : PlayerRegistry.all()) {
+            if (pred.get(slot.session))
                 size++;
         }
 
@@ -112,9 +99,9 @@ public class Session {
     }
 
     public static Session find(Boolf<Session> pred) {
-        for (Session p : data.values()) {
-            if (pred.get(p))
-                return p;
+        for (var slot : PlayerRegistry.all()) {
+            if (pred.get(slot.session))
+                return slot.session;
         }
 
         return null;
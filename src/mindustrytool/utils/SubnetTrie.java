@@ -0,0 +1,324 @@
+package mindustrytool.utils;
+
+import java.util.Arrays;
+
+// Immutable binary prefix trie over IPv4 and IPv6 CIDR blocks. Nodes live in
+// flat int arrays, lookups walk at most one node per prefix bit and do not
+// allocate. IPv4-mapped IPv6 addresses are matched against the IPv4 blocks.
+public class SubnetTrie {
+
+    public static final SubnetTrie EMPTY = new Builder().build();
+
+    private static final int V4_ROOT = 0;
+    private static final int V6_ROOT = 1;
+
+    private static final ThreadLocal<long[]> scratch = ThreadLocal.withInitial(() -> new long[2]);
+
+    // children[node * 2 + bit], 0 means no child since the roots are never children
+    private final int[] children;
+    private final boolean[] terminal;
+    private final int size;
+
+    private SubnetTrie(int[] children, boolean[] terminal, int size) {
+        this.children = children;
+        this.terminal = terminal;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String ip) {
+        if (ip == null) {
+            return false;
+        }
+
+        int end = ip.indexOf('%');
+        if (end < 0) {
+            end = ip.length();
+        }
+
+        if (ip.indexOf(':') < 0) {
+            long v4 = parseV4(ip, 0, end);
+
+            return v4 >= 0 && walk(V4_ROOT, v4 << 32, 0, 32);
+        }
+
+        var address = scratch.get();
+
+        if (!parseV6(ip, 0, end, address)) {
+            return false;
+        }
+
+        if (address[0] == 0 && (address[1] >>> 32) == 0xFFFFL && walk(V4_ROOT, address[1] << 32, 0, 32)) {
+            return true;
+        }
+
+        return walk(V6_ROOT, address[0], address[1], 128);
+    }
+
+    private boolean walk(int node, long hi, long lo, int bits) {
+        if (terminal[node]) {
+            return true;
+        }
+
+        for (int i = 0; i < bits; i++) {
+            node = children[node * 2 + bitAt(hi, lo, i)];
+
+            if (node == 0) {
+                return false;
+            }
+
+            if (terminal[node]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int bitAt(long hi, long lo, int index) {
+        return (int) (index < 64 ? (hi >>> (63 - index)) & 1 : (lo >>> (127 - index)) & 1);
+    }
+
+    // Unsigned 32 bit value, or -1 when malformed
+    static long parseV4(String value, int from, int to) {
+        long result = 0;
+        int octet = -1;
+        int octets = 0;
+
+        for (int i = from; i < to; i++) {
+            char ch = value.charAt(i);
+
+            if (ch >= '0' && ch <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (ch - '0');
+
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (ch == '.' && octet >= 0 && octets < 3) {
+                result = result << 8 | octet;
+                octet = -1;
+                octets++;
+            } else {
+                return -1;
+            }
+        }
+
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+
+        return result << 8 | octet;
+    }
+
+    // Writes the high and low 64 bits into out, false when malformed
+    static boolean parseV6(String value, int from, int to, long[] out) {
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+
+        int i = from;
+
+        if (to - from >= 2 && value.charAt(from) == ':' && value.charAt(from + 1) == ':') {
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < to) {
+            int start = i;
+            int group = 0;
+
+            while (i < to && i - start < 4) {
+                int digit = Character.digit(value.charAt(i), 16);
+
+                if (digit < 0) {
+                    break;
+                }
+
+                group = group << 4 | digit;
+                i++;
+            }
+
+            // Trailing dotted quad, as in ::ffff:192.0.2.1
+            if (i < to && value.charAt(i) == '.') {
+                long v4 = parseV4(value, start, to);
+
+                if (v4 < 0 || headGroups + tailGroups > 6) {
+                    return false;
+                }
+
+                if (compressed) {
+                    tailHi = tailHi << 32 | tailLo >>> 32;
+                    tailLo = tailLo << 32 | v4;
+                    tailGroups += 2;
+                } else {
+                    headHi = headHi << 32 | headLo >>> 32;
+                    headLo = headLo << 32 | v4;
+                    headGroups += 2;
+                }
+
+                i = to;
+                break;
+            }
+
+            if (i == start || headGroups + tailGroups >= 8) {
+                return false;
+            }
+
+            if (compressed) {
+                tailHi = tailHi << 16 | tailLo >>> 48;
+                tailLo = tailLo << 16 | group;
+                tailGroups++;
+            } else {
+                headHi = headHi << 16 | headLo >>> 48;
+                headLo = headLo << 16 | group;
+                headGroups++;
+            }
+
+            if (i == to) {
+                break;
+            }
+
+            if (value.charAt(i) != ':') {
+                return false;
+            }
+
+            i++;
+
+            if (i < to && value.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+
+                compressed = true;
+                i++;
+            } else if (i == to) {
+                return false;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+
+        // Move the head groups to the top, the tail already sits at the bottom
+        int shift = 16 * (8 - headGroups);
+
+        if (shift >= 128) {
+            headHi = 0;
+            headLo = 0;
+        } else if (shift >= 64) {
+            headHi = headLo << (shift - 64);
+            headLo = 0;
+        } else if (shift > 0) {
+            headHi = headHi << shift | headLo >>> (64 - shift);
+            headLo = headLo << shift;
+        }
+
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+
+        return true;
+    }
+
+    public static class Builder {
+        private int[] children = new int[64];
+        private boolean[] terminal = new boolean[32];
+        private int nodes = 2;
+        private int size;
+
+        private final long[] address = new long[2];
+
+        // Returns false for entries that are not valid CIDR blocks or addresses
+        public boolean add(String cidr) {
+            cidr = cidr.trim();
+
+            int slash = cidr.indexOf('/');
+            int end = slash < 0 ? cidr.length() : slash;
+
+            int prefix;
+            int root;
+            long hi;
+            long lo;
+
+            if (cidr.indexOf(':') < 0) {
+                long v4 = parseV4(cidr, 0, end);
+
+                if (v4 < 0) {
+                    return false;
+                }
+
+                root = V4_ROOT;
+                hi = v4 << 32;
+                lo = 0;
+                prefix = 32;
+            } else {
+                if (!parseV6(cidr, 0, end, address)) {
+                    return false;
+                }
+
+                root = V6_ROOT;
+                hi = address[0];
+                lo = address[1];
+                prefix = 128;
+            }
+
+            if (slash >= 0) {
+                try {
+                    int parsed = Integer.parseInt(cidr.substring(slash + 1));
+
+                    if (parsed < 0 || parsed > prefix) {
+                        return false;
+                    }
+
+                    prefix = parsed;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+
+            insert(root, hi, lo, prefix);
+            size++;
+
+            return true;
+        }
+
+        private void insert(int node, long hi, long lo, int prefix) {
+            for (int i = 0; i < prefix; i++) {
+                // Already covered by a shorter block
+                if (terminal[node]) {
+                    return;
+                }
+
+                int slot = node * 2 + bitAt(hi, lo, i);
+
+                if (children[slot] == 0) {
+                    // newNode may grow the arrays, so it has to run before the store
+                    int child = newNode();
+                    children[slot] = child;
+                }
+
+                node = children[slot];
+            }
+
+            terminal[node] = true;
+        }
+
+        private int newNode() {
+            if (nodes == terminal.length) {
+                terminal = Arrays.copyOf(terminal, nodes * 2);
+                children = Arrays.copyOf(children, nodes * 4);
+            }
+
+            return nodes++;
+        }
+
+        public SubnetTrie build() {
+            return new SubnetTrie(Arrays.copyOf(children, nodes * 2), Arrays.copyOf(terminal, nodes), size);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package mindustrytool.utils;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import arc.util.Log;
+
+public class TimingWheel {
+
+    private final long tickNanos;
+    private final ArrayList<Timeout>[] buckets;
+    private final ConcurrentLinkedQueue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final long startTime;
+
+    private long tick = 0;
+
+    public static class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean cancelled = false;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, long tickDuration, TimeUnit unit, int size) {
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.buckets = new ArrayList[size];
+
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+
+        this.startTime = System.nanoTime();
+
+        var thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        var timeout = new Timeout(task, System.nanoTime() - startTime + unit.toNanos(delay));
+
+        added.offer(timeout);
+
+        return timeout;
+    }
+
+    private void run() {
+        while (true) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - (System.nanoTime() - startTime);
+
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(sleep) + 1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            transferAdded();
+
+            var bucket = buckets[(int) (tick % buckets.length)];
+
+            bucket.removeIf(timeout -> {
+                if (timeout.cancelled) {
+                    return true;
+                }
+
+                if (timeout.rounds > 0) {
+                    timeout.rounds--;
+                    return false;
+                }
+
+                try {
+                    timeout.task.run();
+                } catch (Throwable e) {
+                    Log.err(e);
+                }
+
+                return true;
+            });
+
+            tick++;
+        }
+    }
+
+    private void transferAdded() {
+        Timeout timeout;
+
+        while ((timeout = added.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+
+            long ticks = Math.max(timeout.deadline / tickNanos, tick);
+
+            timeout.rounds = (ticks - tick) / buckets.length;
+            buckets[(int) (ticks % buckets.length)].add(timeout);
+        }
+    }
+}
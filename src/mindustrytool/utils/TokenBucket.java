@@ -0,0 +1,42 @@
+package mindustrytool.utils;
+
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNanos;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNanos = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+
+        return false;
+    }
+
+    // A full bucket has not been used for a while and can be dropped
+    public synchronized boolean isFull() {
+        refill();
+
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNanos);
+        lastRefill = now;
+    }
+}
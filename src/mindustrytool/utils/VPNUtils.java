@@ -1,34 +1,108 @@
 package mindustrytool.utils;
 
 import java.net.URI;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
+import arc.files.Fi;
 import arc.util.Log;
-import arc.util.Strings;
+import arc.util.Timer;
+import mindustry.Vars;
 import mindustry.gen.Player;
 
 public class VPNUtils {
-    private static final HashSet<String> BLACK_LISTED_SUBNET = new HashSet<>();
+    public static final String GITHUB_FEED = "github-actions";
+    public static final String LOCAL_FEED = "local";
+
+    private static final float REFRESH_INTERVAL_SECONDS = 6 * 60 * 60;
+
+    // Feed name -> CIDR blocks, merged into one trie whenever a feed changes
+    private static final ConcurrentHashMap<String, List<String>> feeds = new ConcurrentHashMap<>();
+
+    private static volatile SubnetTrie subnets = SubnetTrie.EMPTY;
 
     public static void init() {
-        Utils.executeExpectError(() -> {
-            try {
-                var response = JsonUtils.objectMapper.readTree(URI.create("https://api.github.com/meta").toURL());
+        Timer.schedule(() -> Utils.executeExpectError(VPNUtils::refresh), 0, REFRESH_INTERVAL_SECONDS);
+    }
+
+    public static void refresh() {
+        try {
+            setFeed(GITHUB_FEED, fetchGithubActions());
+        } catch (Exception e) {
+            Log.err(e);
+        }
+
+        try {
+            setFeed(LOCAL_FEED, readLocalFile(getLocalFile()));
+        } catch (Exception e) {
+            Log.err(e);
+        }
+    }
+
+    public static List<String> fetchGithubActions() throws Exception {
+        var response = JsonUtils.objectMapper.readTree(URI.create("https://api.github.com/meta").toURL());
+        var actions = response.withArray("actions").elements();
+
+        List<String> result = new ArrayList<>();
 
-                var actions = response.withArray("actions").elements();
+        while (actions.hasNext()) {
+            result.add(actions.next().asText());
+        }
+
+        return result;
+    }
+
+    // One CIDR block or address per line, # starts a comment
+    public static Fi getLocalFile() {
+        return Vars.dataDirectory.child("vpn-subnets.txt");
+    }
 
-                while (actions.hasNext()) {
-                    var subnet = actions.next().asText();
-                    if (subnet.contains(":")) {
-                        return; // skipping IPv6
-                    }
+    private static List<String> readLocalFile(Fi file) {
+        List<String> result = new ArrayList<>();
 
-                    BLACK_LISTED_SUBNET.add(subnet);
+        if (!file.exists()) {
+            return result;
+        }
+
+        for (var line : file.readString().split("\n")) {
+            int comment = line.indexOf('#');
+            var entry = (comment < 0 ? line : line.substring(0, comment)).trim();
+
+            if (!entry.isEmpty()) {
+                result.add(entry);
+            }
+        }
+
+        return result;
+    }
+
+    public static synchronized void setFeed(String name, Collection<String> blocks) {
+        feeds.put(name, List.copyOf(blocks));
+
+        var builder = new SubnetTrie.Builder();
+        int invalid = 0;
+
+        for (var feed : feeds.values()) {
+            for (var block : feed) {
+                if (!builder.add(block)) {
+                    invalid++;
                 }
-            } catch (Exception e) {
-                Log.err(e);
             }
-        });
+        }
+
+        if (invalid > 0) {
+            Log.warn("Skipped @ invalid VPN subnet entries", invalid);
+        }
+
+        subnets = builder.build();
+
+        Log.debug("Loaded @ VPN subnets from feed @, @ in total", blocks.size(), name, subnets.size());
+    }
+
+    public static int getSubnetCount() {
+        return subnets.size();
     }
 
     public static boolean isBot(Player player) {
@@ -43,27 +117,6 @@ public class VPNUtils {
     }
 
     public static boolean isVpnIp(String ipAddress) {
-        return BLACK_LISTED_SUBNET.stream().anyMatch(subnet -> isIPInSubnet(ipAddress, subnet));
-    }
-
-    public static boolean isIPInSubnet(String ipAddress, String subnet) {
-        String[] subnetParts = subnet.split("/");
-        String subnetAddress = subnetParts[0];
-
-        int subnetPrefix = Strings.parseInt(subnetParts[1]);
-        int ipInt = ipToInt(ipAddress);
-        int subnetInt = ipToInt(subnetAddress);
-        int subnetMask = (0xFFFFFFFF << (32 - subnetPrefix));
-
-        return (ipInt & subnetMask) == (subnetInt & subnetMask);
-    }
-
-    public static int ipToInt(String ipAddress) {
-        String[] ipParts = ipAddress.split("\\.");
-        int result = 0;
-        for (int i = 0; i < 4; i++) {
-            result = result << 8 | Strings.parseInt(ipParts[i]);
-        }
-        return result;
+        return subnets.contains(ipAddress);
     }
 }
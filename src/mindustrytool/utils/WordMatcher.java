@@ -0,0 +1,332 @@
+package mindustrytool.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+// Immutable Aho-Corasick automaton over a word list. One pass over a message
+// finds every listed word, ignoring case and color tags, so a word split by
+// tags as in b[red]ad is still found. Words only match whole words unless
+// they are listed as *word. Children of a node are stored as a sorted key
+// range in flat arrays and found with a binary search.
+public class WordMatcher {
+
+    public static final WordMatcher EMPTY = new Builder().build();
+
+    // Longest tag looked at, as in [#ff00ffaa] or [accent]
+    private static final int MAX_TAG_LENGTH = 24;
+
+    private static final ThreadLocal<int[]> positionScratch = ThreadLocal.withInitial(() -> new int[256]);
+    private static final ThreadLocal<char[]> charScratch = ThreadLocal.withInitial(() -> new char[256]);
+
+    // Children of node n are keys[childStart[n] .. childStart[n + 1]]
+    private final int[] childStart;
+    private final char[] keys;
+    private final int[] targets;
+    private final int[] fail;
+    // Nearest node on the fail chain that ends a word, 0 when there is none
+    private final int[] output;
+    // Length of the word ending at a node, 0 when none does
+    private final int[] wordLength;
+    private final boolean[] substring;
+    private final int size;
+
+    private WordMatcher(int[] childStart, char[] keys, int[] targets, int[] fail, int[] output, int[] wordLength,
+            boolean[] substring, int size) {
+        this.childStart = childStart;
+        this.keys = keys;
+        this.targets = targets;
+        this.fail = fail;
+        this.output = output;
+        this.wordLength = wordLength;
+        this.substring = substring;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean matches(String text) {
+        return censor(text) != text;
+    }
+
+    // Returns the same instance when nothing matched, otherwise a copy with
+    // every matched character replaced by *
+    public String censor(String text) {
+        if (size == 0) {
+            return text;
+        }
+
+        int length = text.length();
+        int[] positions = positionScratch.get();
+        char[] chars = charScratch.get();
+
+        if (positions.length < length) {
+            positions = new int[Math.max(length, positions.length * 2)];
+            chars = new char[positions.length];
+            positionScratch.set(positions);
+            charScratch.set(chars);
+        }
+
+        char[] result = null;
+        int node = 0;
+        int count = 0;
+
+        for (int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+
+            if (ch == '[') {
+                int end = tagEnd(text, i);
+
+                if (end > 0) {
+                    i = end;
+                    continue;
+                }
+
+                // [[ is an escaped bracket
+                if (i + 1 < length && text.charAt(i + 1) == '[') {
+                    i++;
+                }
+            }
+
+            char lower = Character.toLowerCase(ch);
+
+            positions[count] = i;
+            chars[count] = lower;
+            count++;
+
+            node = step(node, lower);
+
+            for (int word = wordLength[node] > 0 ? node : output[node]; word != 0; word = output[word]) {
+                int start = count - wordLength[word];
+
+                if (!substring[word] && (start > 0 && isWordChar(chars[start - 1]) || isWordChar(peek(text, i + 1)))) {
+                    continue;
+                }
+
+                if (result == null) {
+                    result = text.toCharArray();
+                }
+
+                for (int k = start; k < count; k++) {
+                    result[positions[k]] = '*';
+                }
+            }
+        }
+
+        return result == null ? text : new String(result);
+    }
+
+    // Hash of the text as players see it, ignoring case and color tags
+    public static int hash(String text) {
+        int length = text.length();
+        int hash = 0;
+
+        for (int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+
+            if (ch == '[') {
+                int end = tagEnd(text, i);
+
+                if (end > 0) {
+                    i = end;
+                    continue;
+                }
+            }
+
+            if (!Character.isWhitespace(ch)) {
+                hash = hash * 31 + Character.toLowerCase(ch);
+            }
+        }
+
+        return hash;
+    }
+
+    // Next character players see from index on, a space at the end of the text
+    private static char peek(String text, int index) {
+        while (index < text.length()) {
+            char ch = text.charAt(index);
+
+            if (ch == '[') {
+                int end = tagEnd(text, index);
+
+                if (end > 0) {
+                    index = end + 1;
+                    continue;
+                }
+            }
+
+            return ch;
+        }
+
+        return ' ';
+    }
+
+    private static boolean isWordChar(char ch) {
+        return Character.isLetterOrDigit(ch);
+    }
+
+    // Index of the closing bracket of a color tag starting at start, or -1
+    private static int tagEnd(String text, int start) {
+        int limit = Math.min(text.length(), start + MAX_TAG_LENGTH + 2);
+
+        for (int i = start + 1; i < limit; i++) {
+            char ch = text.charAt(i);
+
+            if (ch == ']') {
+                return i;
+            }
+
+            if (ch == '[' || Character.isWhitespace(ch)) {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private int step(int node, char ch) {
+        while (true) {
+            int child = child(node, ch);
+
+            if (child >= 0) {
+                return child;
+            }
+
+            if (node == 0) {
+                return 0;
+            }
+
+            node = fail[node];
+        }
+    }
+
+    private int child(int node, char ch) {
+        int index = Arrays.binarySearch(keys, childStart[node], childStart[node + 1], ch);
+
+        return index < 0 ? -1 : targets[index];
+    }
+
+    public static class Builder {
+        private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+        private final List<Boolean> substrings = new ArrayList<>();
+        private int size;
+
+        public Builder() {
+            newNode();
+        }
+
+        // Returns false for blank entries, *word also matches inside other words
+        public boolean add(String word) {
+            word = word.trim();
+
+            boolean substring = word.startsWith("*");
+
+            if (substring) {
+                word = word.substring(1).trim();
+            }
+
+            if (word.isEmpty()) {
+                return false;
+            }
+
+            int node = 0;
+
+            for (int i = 0; i < word.length(); i++) {
+                // Lowered per char like the messages, String.toLowerCase depends on the locale
+                char ch = Character.toLowerCase(word.charAt(i));
+                var next = children.get(node).get(ch);
+
+                if (next == null) {
+                    next = newNode();
+                    children.get(node).put(ch, next);
+                }
+
+                node = next;
+            }
+
+            if (lengths.get(node) == 0) {
+                lengths.set(node, word.length());
+                size++;
+            }
+
+            if (substring) {
+                substrings.set(node, true);
+            }
+
+            return true;
+        }
+
+        private int newNode() {
+            children.add(new TreeMap<>());
+            lengths.add(0);
+            substrings.add(false);
+
+            return children.size() - 1;
+        }
+
+        public WordMatcher build() {
+            int nodes = children.size();
+            int edges = nodes - 1;
+
+            int[] childStart = new int[nodes + 1];
+            char[] keys = new char[edges];
+            int[] targets = new int[edges];
+            int[] fail = new int[nodes];
+            int[] output = new int[nodes];
+            int[] wordLength = new int[nodes];
+            boolean[] substring = new boolean[nodes];
+
+            int index = 0;
+
+            for (int node = 0; node < nodes; node++) {
+                childStart[node] = index;
+                wordLength[node] = lengths.get(node);
+                substring[node] = substrings.get(node);
+
+                for (var entry : children.get(node).entrySet()) {
+                    keys[index] = entry.getKey();
+                    targets[index] = entry.getValue();
+                    index++;
+                }
+            }
+
+            childStart[nodes] = index;
+
+            // Breadth first, so a node's fail target is final before its children need it
+            var queue = new ArrayDeque<Integer>();
+
+            for (int child : children.get(0).values()) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+
+                for (var entry : children.get(node).entrySet()) {
+                    char ch = entry.getKey();
+                    int child = entry.getValue();
+
+                    int target = fail[node];
+
+                    while (target != 0 && !children.get(target).containsKey(ch)) {
+                        target = fail[target];
+                    }
+
+                    var next = children.get(target).get(ch);
+                    fail[child] = next == null || next == child ? 0 : next;
+                    output[child] = wordLength[fail[child]] > 0 ? fail[child] : output[fail[child]];
+
+                    queue.add(child);
+                }
+            }
+
+            return new WordMatcher(childStart, keys, targets, fail, output, wordLength, substring, size);
+        }
+    }
+}